@@ -0,0 +1,85 @@
+package br.com.henriquewilhelm.orbit;
+
+/**
+ * Accuracy of the positions and of the horizon scan of a calculation, selected per request by
+ * {@link CalculationContext}. It trades the CPU of a calculation for its accuracy:
+ * <ul>
+ * <li>the periodic terms of the sun and the moon with an amplitude below {@link #getSeriesThreshold()} are left out,</li>
+ * <li>the eccentric anomaly of the planets is iterated until it changes less than {@link #getKeplerTolerance()},</li>
+ * <li>the day is scanned for the crossings of the horizon in {@link #getScanSteps()} steps, or they are solved
+ * from the hour angle of the horizon.</li>
+ * </ul>
+ *
+ * <p>The errors are the largest differences to STANDARD found from 1900 to 2100, the rise and set at latitudes
+ * up to 60 degrees. The times are truncated to the minute, so a difference of 1 minute is often only the truncation.
+ * The throughput is the one of {@link Calculator#calculate(CalculationContext)} of the sun, twilights, moon and planets
+ * of a day, without the ephemeris cache.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public enum Accuracy {
+	/**
+	 * Minute-level accuracy, e.g. for notifications: the terms of the sun and the moon from .0005,
+	 * Kepler to 1e-6 rad and the crossings of the horizon solved from the hour angle instead of scanned.
+	 * Positions of the sun within 0.04 degrees, of the moon within 0.17 degrees, of the planets within 1e-11 degrees
+	 * (the last Newton step of Kepler's equation is quadratic). Rise and set of the sun and of the moon within 2 minutes.
+	 * About 1.5 times the throughput of STANDARD.
+	 */
+	FAST(.0005, 1.0E-6, 0),
+	/**
+	 * All the terms of the theories, Kepler to 1e-12 rad and a scan every hour, the results of the calculator by default
+	 */
+	STANDARD(0, 1.0E-12, 24),
+	/**
+	 * All the terms of the theories evaluated directly (no {@link ChebyshevEphemeris}), Kepler iterated to the
+	 * precision of a double and a scan every 30 minutes.
+	 * Positions within 1e-12 degrees of STANDARD, rise and set within 1 minute, closer to the crossings of the
+	 * theory when the altitude curve is not a parabola over an hour (high latitudes, the moon).
+	 * About 0.7 times the throughput of STANDARD.
+	 */
+	PRECISE(0, 1.0E-15, 48);
+
+	private final double seriesThreshold;
+	private final double keplerTolerance;
+	private final int scanSteps;
+
+	private Accuracy(double seriesThreshold, double keplerTolerance, int scanSteps) {
+		this.seriesThreshold = seriesThreshold;
+		this.keplerTolerance = keplerTolerance;
+		this.scanSteps = scanSteps;
+	}
+
+	/**
+	 * Smallest amplitude of the periodic terms of the sun and the moon that are evaluated
+	 * @return amplitude, 0 for all of them
+	 */
+	public double getSeriesThreshold() {
+		return seriesThreshold;
+	}
+
+	/**
+	 * Change of the eccentric anomaly (radians) that ends the iteration of Kepler's equation
+	 * @return tolerance
+	 */
+	public double getKeplerTolerance() {
+		return keplerTolerance;
+	}
+
+	/**
+	 * Steps of the horizon scan of a day
+	 * @return steps, 24 for one per hour, 0 to solve the crossings without a scan
+	 */
+	public int getScanSteps() {
+		return scanSteps;
+	}
+
+	/**
+	 * Check if a periodic term is evaluated
+	 * @param amplitude amplitude of the term
+	 * @return boolean
+	 */
+	boolean keeps(double amplitude) {
+		return Math.abs(amplitude) >= seriesThreshold;
+	}
+}
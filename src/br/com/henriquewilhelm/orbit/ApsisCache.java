@@ -0,0 +1,90 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Cache of the apogees and perigees of the moon per year. The apsides do not depend on the observer, so every
+ * calculator of a year shares one {@link ApsisTable}, computed by {@link PerigeeApogeeCalculator#apsides(int)}.
+ *
+ * <p>A year is computed once: threads missing the same year at the same time wait for the one computing it.
+ * The cache keeps at most its capacity of years, the years computed first are evicted first. The tables are
+ * immutable, so they are handed out without copies.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public final class ApsisCache {
+	/**
+	 * {@value #DEFAULT_CAPACITY} Years of the shared cache
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+	/**
+	 * Cache shared by all calculators
+	 */
+	private static final ApsisCache SHARED = new ApsisCache(DEFAULT_CAPACITY);
+
+	private final ConcurrentHashMap<Integer, ApsisTable> tables = new ConcurrentHashMap<Integer, ApsisTable>();
+	/**
+	 * Years of the tables, in the order they were computed
+	 */
+	private final ConcurrentLinkedQueue<Integer> years = new ConcurrentLinkedQueue<Integer>();
+	private final int capacity;
+
+	/**
+	 * Cache shared by all calculators
+	 * @return ApsisCache
+	 */
+	public static ApsisCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Construtor with a capacity
+	 * @param capacity maximum number of years kept
+	 */
+	public ApsisCache(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		}
+		this.capacity = capacity;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Apogees and perigees of a year, computed when the year is not in the cache
+	 * @param year year
+	 * @return ApsisTable
+	 */
+	public ApsisTable get(int year) {
+		ApsisTable table = tables.get(year);
+		if (table != null) {
+			return table;
+		}
+		table = tables.computeIfAbsent(year, y -> {
+			years.add(y);
+			return PerigeeApogeeCalculator.apsides(y);
+		});
+		while (tables.size() > capacity) {
+			Integer eldest = years.poll();
+			if (eldest == null) {
+				break;
+			}
+			tables.remove(eldest);
+		}
+		return table;
+	}
+
+	/**
+	 * Remove all years
+	 */
+	public void clear() {
+		Integer year;
+		while ((year = years.poll()) != null) {
+			tables.remove(year);
+		}
+	}
+}
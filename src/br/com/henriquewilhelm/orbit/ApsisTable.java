@@ -0,0 +1,110 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Apogees and perigees of the moon over a range of dates, see {@link PerigeeApogeeCalculator#apsides(double, double)}.
+ *
+ * <p>The apsides are kept in primitive arrays in the order of time: the exact instant (julian ephemeris date),
+ * the distance and the type of each one. The days of the apsides are kept as a sorted array of epoch days (days
+ * since 1970-01-01), so the apsis of the day of a date is found by a binary search instead of comparing the year,
+ * month and day of every date of the lists. The day of an apsis is that of its instant rounded to the minute, as the
+ * fields of the {@link Date} of the lists.</p>
+ *
+ * <p>A table is immutable, it can be shared by any number of threads.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public final class ApsisTable {
+	/**
+	 * {@value #MILLIS_IN_DAY}
+	 */
+	private static final long MILLIS_IN_DAY = 86400000L;
+	/**
+	 * {@value #HALF_MINUTE} Half a minute in days, to round the instants to the minute
+	 */
+	private static final double HALF_MINUTE = 30.0 / 86400.0;
+	/**
+	 * Epoch day of each apsis, sorted
+	 */
+	private final long[] epochDays;
+	/**
+	 * Julian ephemeris date and distance (km) of each apsis
+	 */
+	private final double[] julianDates;
+	private final double[] distances;
+	private final boolean[] apogees;
+
+	/**
+	 * Construtor
+	 * @param julianDates julian ephemeris date of each apsis, in the order of time
+	 * @param distances distance (km) of each apsis
+	 * @param apogees true for an apogee
+	 * @param count number of apsides
+	 */
+	ApsisTable(double[] julianDates, double[] distances, boolean[] apogees, int count) {
+		this.julianDates = Arrays.copyOf(julianDates, count);
+		this.distances = Arrays.copyOf(distances, count);
+		this.apogees = Arrays.copyOf(apogees, count);
+		this.epochDays = new long[count];
+		for (int i = 0; i < count; i++) {
+			epochDays[i] = (long) Math.floor(julianDates[i] + HALF_MINUTE + 0.5) - JulianDay.UNIX_EPOCH_JULIAN_DAY;
+		}
+	}
+
+	/**
+	 * Epoch day of a date in the default time zone (the day of {@link Date#getYear()}, {@link Date#getMonth()}
+	 * and {@link Date#getDate()})
+	 * @param date Date
+	 * @return days since 1970-01-01
+	 */
+	static long epochDay(Date date) {
+		long time = date.getTime();
+		return Math.floorDiv(time + TimeZone.getDefault().getOffset(time), MILLIS_IN_DAY);
+	}
+
+	/**
+	 * Apsis of a day
+	 * @param epochDay days since 1970-01-01
+	 * @return index of the apsis, -1 when there is none on the day
+	 */
+	public int indexOf(long epochDay) {
+		int index = Arrays.binarySearch(epochDays, epochDay);
+		return index >= 0 ? index : -1;
+	}
+
+	public int size() {
+		return epochDays.length;
+	}
+
+	public boolean isApogee(int index) {
+		return apogees[index];
+	}
+
+	/**
+	 * @param index index of the apsis
+	 * @return julian ephemeris date of the apsis, not rounded
+	 */
+	public double getJulianDate(int index) {
+		return julianDates[index];
+	}
+
+	/**
+	 * @param index index of the apsis
+	 * @return distance from the center of the Earth to the center of the moon (km)
+	 */
+	public double getDistance(int index) {
+		return distances[index];
+	}
+
+	/**
+	 * @param index index of the apsis
+	 * @return date of the apsis, rounded to the minute, with the fields of the UT date in the default time zone
+	 */
+	public Date getDate(int index) {
+		return PerigeeApogeeCalculator.eDate(julianDates[index]);
+	}
+}
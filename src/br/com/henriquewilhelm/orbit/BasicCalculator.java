@@ -19,17 +19,7 @@ public class BasicCalculator {
 		int second = calendar.get(Calendar.SECOND);
 		//System.out.println("UTC: " + month + "/" + day + "/" + year + "  " + hour + ":" + minute + ":" + second);
 
-		if ((month == 1) || (month == 2)) {
-			year = year - 1;
-			month = month + 12;
-		}
-
-		double a = Math.floor(year / 100);
-		double b = (2 - a + Math.floor(a / 4));
-		double c = Math.floor(365.25 * year);
-		double d = Math.floor(30.6001 * (month + 1)); // +1
-
 		// days since J2000.0
-		return (b + c + d - 730550.5 + day + (hour + minute / 60.0 + second / 3600.0) / 24.0);
+		return JulianDay.daysSinceJ2000(year, month, day, (hour + minute / 60.0 + second / 3600.0) / 24.0);
 	}
 }
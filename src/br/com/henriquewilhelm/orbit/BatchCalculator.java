@@ -0,0 +1,125 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.util.Calendar;
+
+/**
+ * Rise and set of a body for many locations at the same date.
+ *
+ * <p>The positions of the body are calculated once for the date, then the horizon scan
+ * runs for all the locations over primitive arrays (the latitude and longitude of location i
+ * are latitudes[i] and longitudes[i], its results are written at index i of the output arrays).
+ * No Calculator, Event or Time is created per location, the times are minutes of the day
+ * in the time zone of the calendar, or {@link #NONE} when the body does not rise or set.</p>
+ *
+ * <p>The results are the same of {@link Calculator#calculate(CalculationContext)} for each location
+ * with the accuracy of the batch calculator. A batch calculator can be shared by any number of threads.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public class BatchCalculator {
+	/**
+	 * No rise or no set in the day
+	 */
+	public static final int NONE = HorizonScan.NONE;
+	/**
+	 * {@value #DR}
+	 */
+	private static final double DR = Math.PI/180.0; //degrees to radians constant
+	/**
+	 * Calculator of positions, julian date and LST (no state of the instance is used)
+	 */
+	private final Calculator calculator = new Calculator();
+	/**
+	 * Accuracy of the positions and of the scans
+	 */
+	private final Accuracy accuracy;
+
+	/**
+	 * Construtor of a batch calculator with the STANDARD accuracy
+	 */
+	public BatchCalculator() {
+		this(Accuracy.STANDARD);
+	}
+
+	/**
+	 * Construtor of a batch calculator with an accuracy
+	 * @param accuracy accuracy of the positions and of the scans, e.g. Accuracy.FAST for notifications
+	 */
+	public BatchCalculator(Accuracy accuracy) {
+		this.accuracy = accuracy;
+	}
+
+	public Accuracy getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Rise and set of a body for many locations
+	 * @param body body of solar system
+	 * @param calendar date of interest for calculation and its time zone, not modified
+	 * @param latitudes latitude of each location
+	 * @param longitudes longitude of each location
+	 * @param riseMinutes out, minute of day of the rise or {@link #NONE}
+	 * @param riseAzimuths out, azimuth of the rise
+	 * @param setMinutes out, minute of day of the set or {@link #NONE}
+	 * @param setAzimuths out, azimuth of the set
+	 */
+	public void calculate(Body body, Calendar calendar, double[] latitudes, double[] longitudes,
+			int[] riseMinutes, double[] riseAzimuths, int[] setMinutes, double[] setAzimuths) {
+		calculate(body, calendar, latitudes, longitudes, riseMinutes, riseAzimuths, setMinutes, setAzimuths, null);
+	}
+
+	/**
+	 * Rise and set of a body for many locations with the type of each day
+	 * @param body body of solar system
+	 * @param calendar date of interest for calculation and its time zone, not modified
+	 * @param latitudes latitude of each location
+	 * @param longitudes longitude of each location
+	 * @param riseMinutes out, minute of day of the rise or {@link #NONE}
+	 * @param riseAzimuths out, azimuth of the rise
+	 * @param setMinutes out, minute of day of the set or {@link #NONE}
+	 * @param setAzimuths out, azimuth of the set
+	 * @param types out, type of day, may be null. When the body does not cross the horizon the type
+	 * comes from its altitude at the end of the day (NO_CHANGE_PREVIOUSLY_SET when it is below the horizon)
+	 */
+	public void calculate(Body body, Calendar calendar, double[] latitudes, double[] longitudes,
+			int[] riseMinutes, double[] riseAzimuths, int[] setMinutes, double[] setAzimuths,
+			Event.HorizonToHorizonCrossing[] types) {
+		int count = latitudes.length;
+		if (longitudes.length != count || riseMinutes.length < count || riseAzimuths.length < count
+				|| setMinutes.length < count || setAzimuths.length < count || (types != null && types.length < count)) {
+			throw new IllegalArgumentException("Arrays of the batch must have the length of latitudes: "+count);
+		}
+
+		int julianDate = calculator.calculateJulianDate(calendar); //note that the julianDate is truncated
+		double daysFromEpoc = (julianDate - Calculator.NEW_STANDARD_EPOC) + 0.5;
+		double utcToLocal = calculator.calculateUtcToDSTLocal(calendar);
+		double timeZoneShift = -1  * utcToLocal/Calculator.HOURS_IN_DAY;
+		double bodyDaysFromEpoc = daysFromEpoc + timeZoneShift;
+
+		Position today    = calculator.calculateBodyPosition(body, bodyDaysFromEpoc, accuracy);
+		Position tomorrow = calculator.calculateBodyPosition(body, bodyDaysFromEpoc+1, accuracy);
+		if (body == Body.SUN || body == Body.MOON) {
+			tomorrow = calculator.ensureSecondAscentionGreater(today, tomorrow);
+		}
+
+		HorizonScan scan = new HorizonScan();
+		scan.setTrack(today, tomorrow, accuracy.getScanSteps());
+		double Z = (body == Body.MOON ? Calculator.MOONRISE_MOONSET_OFFSET : Calculator.SUNRISE_SUNET_OFFSET).horizon;
+
+		for (int i = 0; i < count; i++) {
+			double S = Math.sin(latitudes[i]*DR);
+			double C = Math.cos(latitudes[i]*DR);
+			double LST = calculator.calculateLST(daysFromEpoc, timeZoneShift, longitudes[i]);
+			scan.scan(S, C, Z, LST);
+			riseMinutes[i] = scan.getRiseMinute(0);
+			riseAzimuths[i] = scan.getRiseAzimuth(0);
+			setMinutes[i] = scan.getSetMinute(0);
+			setAzimuths[i] = scan.getSetAzimuth(0);
+			if (types != null) {
+				types[i] = scan.getType(0);
+			}
+		}
+	}
+}
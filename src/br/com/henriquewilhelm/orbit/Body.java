@@ -0,0 +1,52 @@
+package br.com.henriquewilhelm.orbit;
+
+/**
+ * Elements of the solar system whose positions are computed by the calculator
+ * (Sun, Moon, Mercury, Venus, Mars, Jupiter, Saturn, Uranus, Neptune, Pluto)
+ * 
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public enum Body {
+	SUN("Sun", -1),
+	MOON("Moon", -1),
+	MERCURY("Mercury", 0),
+	VENUS("Venus", 1),
+	MARS("Mars", 3),
+	JUPITER("Jupiter", 4),
+	SATURN("Saturn", 5),
+	URANUS("Uranus", 6),
+	NEPTUNE("Neptune", 7),
+	PLUTO("Pluto", 8);
+	
+	/**
+	 * Planets in the order of the planet list of the Result
+	 */
+	static final Body[] PLANETS = { MERCURY, VENUS, MARS, JUPITER, SATURN, URANUS, NEPTUNE, PLUTO };
+	
+	/**
+	 * Name of element of system solar
+	 */
+	private final String displayName;
+	/**
+	 * Element of {@link OrbitCalculator} (-1 for the sun and the moon)
+	 */
+	private final int element;
+	
+	private Body(String displayName, int element) {
+		this.displayName = displayName;
+		this.element = element;
+	}
+	
+	public String getDisplayName() {
+		return displayName;
+	}
+	
+	/**
+	 * Element of {@link OrbitCalculator}
+	 * @return int value (0-8), -1 for the sun and the moon
+	 */
+	int getElement() {
+		return element;
+	}
+}
@@ -0,0 +1,173 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.EnumSet;
+import java.util.TimeZone;
+
+/**
+ * Immutable request of a calculation: the location of the user, the date of interest
+ * (instant and time zone), the {@link Product}s to calculate (all of them by default) and the {@link Accuracy}
+ * (STANDARD by default). It is used by the thread-safe {@link Calculator#calculate(CalculationContext)},
+ * so the same calculator can serve many requests at the same time.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public final class CalculationContext implements Serializable {
+	/**
+	 * serialVersionUID
+	 */
+	private static final long serialVersionUID = -1093815523744104392L;
+	/**
+	 * Location of user and its constants
+	 */
+	private final ObserverContext observer;
+	/**
+	 * Time zone of the date of interest (a private copy, TimeZone is mutable)
+	 */
+	private final TimeZone timeZone;
+	/**
+	 * Date of interest in milliseconds since January 1, 1970 UTC
+	 */
+	private final long timeInMillis;
+	/**
+	 * Products to calculate, with the products they need
+	 */
+	private final EnumSet<Product> products;
+	/**
+	 * Accuracy of the positions and of the horizon scans
+	 */
+	private final Accuracy accuracy;
+
+	public GpsCoordinate getGps() {
+		return observer.getGps();
+	}
+
+	public ObserverContext getObserver() {
+		return observer;
+	}
+
+	public TimeZone getTimeZone() {
+		return (TimeZone) timeZone.clone();
+	}
+
+	public long getTimeInMillis() {
+		return timeInMillis;
+	}
+
+	public EnumSet<Product> getProducts() {
+		return EnumSet.copyOf(products);
+	}
+
+	public Accuracy getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Check if a product is calculated
+	 * @param product Product
+	 * @return boolean
+	 */
+	public boolean has(Product product) {
+		return products.contains(product);
+	}
+
+	/**
+	 * Construtor with the date of interest of a calendar, the calendar is not kept
+	 * @param gps location of user
+	 * @param calendar date of interest for calculation
+	 */
+	public CalculationContext(GpsCoordinate gps, Calendar calendar) {
+		this(gps, calendar.getTimeZone(), calendar.getTimeInMillis());
+	}
+
+	/**
+	 * Construtor with instant and time zone
+	 * @param gps location of user
+	 * @param timeZone time zone of the date of interest
+	 * @param timeInMillis date of interest in milliseconds since January 1, 1970 UTC
+	 */
+	public CalculationContext(GpsCoordinate gps, TimeZone timeZone, long timeInMillis) {
+		this(new ObserverContext(gps), timeZone, timeInMillis);
+	}
+
+	/**
+	 * Construtor with an observer kept by the caller (e.g. of a fixed site) and the date of interest of a calendar,
+	 * the calendar is not kept
+	 * @param observer location of user and its constants
+	 * @param calendar date of interest for calculation
+	 */
+	public CalculationContext(ObserverContext observer, Calendar calendar) {
+		this(observer, calendar.getTimeZone(), calendar.getTimeInMillis());
+	}
+
+	/**
+	 * Construtor with an observer kept by the caller (e.g. of a fixed site), instant and time zone
+	 * @param observer location of user and its constants
+	 * @param timeZone time zone of the date of interest
+	 * @param timeInMillis date of interest in milliseconds since January 1, 1970 UTC
+	 */
+	public CalculationContext(ObserverContext observer, TimeZone timeZone, long timeInMillis) {
+		this(observer, timeZone, timeInMillis, Product.all());
+	}
+
+	/**
+	 * Construtor of a selection of products with the date of interest of a calendar, the calendar is not kept
+	 * @param gps location of user
+	 * @param calendar date of interest for calculation
+	 * @param products products to calculate, e.g. EnumSet.of(Product.SUN_RISE_SET, Product.TWILIGHTS)
+	 */
+	public CalculationContext(GpsCoordinate gps, Calendar calendar, EnumSet<Product> products) {
+		this(new ObserverContext(gps), calendar.getTimeZone(), calendar.getTimeInMillis(), products);
+	}
+
+	/**
+	 * Construtor of a selection of products with an observer kept by the caller, instant and time zone
+	 * @param observer location of user and its constants
+	 * @param timeZone time zone of the date of interest
+	 * @param timeInMillis date of interest in milliseconds since January 1, 1970 UTC
+	 * @param products products to calculate, the products they need are added (see {@link Product})
+	 */
+	public CalculationContext(ObserverContext observer, TimeZone timeZone, long timeInMillis, EnumSet<Product> products) {
+		this(observer, timeZone, timeInMillis, products, Accuracy.STANDARD);
+	}
+
+	/**
+	 * Construtor of a selection of products and an accuracy with the date of interest of a calendar, the calendar is not kept
+	 * @param gps location of user
+	 * @param calendar date of interest for calculation
+	 * @param products products to calculate
+	 * @param accuracy accuracy of the calculation, e.g. Accuracy.FAST for notifications
+	 */
+	public CalculationContext(GpsCoordinate gps, Calendar calendar, EnumSet<Product> products, Accuracy accuracy) {
+		this(new ObserverContext(gps), calendar.getTimeZone(), calendar.getTimeInMillis(), products, accuracy);
+	}
+
+	/**
+	 * Construtor of a selection of products and an accuracy with an observer kept by the caller, instant and time zone
+	 * @param observer location of user and its constants
+	 * @param timeZone time zone of the date of interest
+	 * @param timeInMillis date of interest in milliseconds since January 1, 1970 UTC
+	 * @param products products to calculate, the products they need are added (see {@link Product})
+	 * @param accuracy accuracy of the calculation
+	 */
+	public CalculationContext(ObserverContext observer, TimeZone timeZone, long timeInMillis, EnumSet<Product> products, 
+			Accuracy accuracy) {
+		this.observer = observer;
+		this.timeZone = (TimeZone) timeZone.clone();
+		this.timeInMillis = timeInMillis;
+		this.products = Product.withDependencies(products);
+		this.accuracy = accuracy;
+	}
+
+	/**
+	 * New calendar, owned by the caller, set to the date of interest
+	 * @return Calendar
+	 */
+	Calendar newCalendar() {
+		Calendar calendar = Calendar.getInstance(getTimeZone());
+		calendar.setTimeInMillis(timeInMillis);
+		return calendar;
+	}
+}
@@ -1,9 +1,20 @@
 package br.com.henriquewilhelm.orbit;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 /**
@@ -14,6 +25,12 @@ import java.util.Date;
  *	different astronomical offset to better match published times over a wide range 
  *	of dates. Negative values mean below the horizon. Positive are above the horizon.</p>
  *
+ *  <p>Thread safety: {@link #calculate(CalculationContext)} keeps all of its state local to the call
+ *  (and to the Result it returns), so a single calculator built with {@link #Calculator()} can be shared
+ *  by any number of threads. The parallelism level must be set before the calculator is shared. The 
+ *  other calculate methods, {@link #calculateYear(Calendar, GpsCoordinate)} and the getters and setters
+ *  work on the state of the instance and need one calculator per thread.</p>
+ *
  * @author Henrique Wilhelm v2.0.0
  * @author zoglmannk v1.0.0
  * 
@@ -88,6 +105,74 @@ public class Calculator {
 	public void setSolarYear(ArrayList<ArrayList<SunEvent>> solarYear) {
 		this.solarYear = solarYear;
 	}
+	public int getParallelism() {
+		return parallelism;
+	}
+	/**
+	 * Set the parallelism level of {@link #calculateYear(Calendar, GpsCoordinate)}. The default is the
+	 * parallelism of the common fork/join pool, 1 or less computes the year on the calling thread.
+	 * @param parallelism parallelism level
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+	public EphemerisCache getEphemerisCache() {
+		return ephemerisCache;
+	}
+	/**
+	 * Set the cache of the positions of the bodies, by default the one shared by all calculators
+	 * @param ephemerisCache EphemerisCache
+	 */
+	public void setEphemerisCache(EphemerisCache ephemerisCache) {
+		this.ephemerisCache = ephemerisCache;
+	}
+	public ApsisCache getApsisCache() {
+		return apsisCache;
+	}
+	/**
+	 * Set the cache of the apogees and perigees of the moon per year, by default the one shared by all calculators
+	 * @param apsisCache ApsisCache
+	 */
+	public void setApsisCache(ApsisCache apsisCache) {
+		this.apsisCache = apsisCache;
+	}
+	public ChebyshevEphemeris getChebyshevEphemeris() {
+		return chebyshevEphemeris;
+	}
+	/**
+	 * Set the Chebyshev ephemeris used for the bodies and epochs it covers, instead of the theories
+	 * (null, the default, always uses the theories). Like the parallelism, it must be set before the calculator is shared.
+	 * @param chebyshevEphemeris ChebyshevEphemeris
+	 */
+	public void setChebyshevEphemeris(ChebyshevEphemeris chebyshevEphemeris) {
+		this.chebyshevEphemeris = chebyshevEphemeris;
+	}
+	public int getRefinement() {
+		return refinement;
+	}
+	/**
+	 * Set the Brent iterations that polish each rise and set found by the horizon scan on the interpolated altitude 
+	 * of the body, within the step of the crossing (one evaluation of the altitude per iteration, 4 reach the
+	 * second and 6 the millisecond). The polished instants are set as {@link Event#getRiseEpochSecond()} and
+	 * {@link Event#getSetEpochSecond()}, the times of the events stay the minutes of the scan.
+	 * 0, the default, sets the instants of the quadratic fit of the scan, within about 10 seconds.
+	 * Like the parallelism, it must be set before the calculator is shared.
+	 * @param refinement Brent iterations per crossing
+	 */
+	public void setRefinement(int refinement) {
+		if (refinement < 0) {
+			throw new IllegalArgumentException("Invalid refinement " + refinement);
+		}
+		this.refinement = refinement;
+	}
+	/**
+	 * Test only the minutes of a possible eclipse in the eclipse checks (the default) or every minute of every day,
+	 * as the legacy loop did. Both give the same eclipses, the legacy loop is kept for {@link EclipseTeste}.
+	 * @param eclipseWindows false to test every minute
+	 */
+	void setEclipseWindows(boolean eclipseWindows) {
+		this.eclipseWindows = eclipseWindows;
+	}
 
 
 	/**
@@ -106,7 +191,11 @@ public class Calculator {
 	/**
 	 * {@value #NEW_STANDARD_EPOC}
 	 */
-	private static final int NEW_STANDARD_EPOC = 2451545; // (January 1, 2000)
+	static final int NEW_STANDARD_EPOC = 2451545; // (January 1, 2000)
+	/**
+	 * {@value #J2000_EPOCH_SECOND} Seconds from 1970-01-01T00:00:00Z to 2000-01-01T12:00:00Z, day 0 of the days From Epoc
+	 */
+	private static final long J2000_EPOCH_SECOND = 946728000L;
 	/**
 	 * {@value #NUM_DAYS_IN_CENTURY}
 	 */
@@ -114,7 +203,11 @@ public class Calculator {
 	/**
 	 * {@value #HOURS_IN_DAY}
 	 */
-	private static final int HOURS_IN_DAY = 24;
+	static final int HOURS_IN_DAY = 24;
+	/**
+	 * {@value #SECONDS_IN_DAY}
+	 */
+	private static final double SECONDS_IN_DAY = 86400.0;
 	/**
 	 * {@value #MINUTE_IN_HOURS}
 	 */
@@ -130,32 +223,86 @@ public class Calculator {
 	/**
 	 * Type OFFSET SUNRISE_SUNET_OFFSET
 	 */
-	private static final Offset SUNRISE_SUNET_OFFSET        = new Offset(0    , true);
+	public static final Offset SUNRISE_SUNET_OFFSET        = new Offset(0    , true);
 	/**
 	 * Type OFFSET CIVIL_TWILIGHT_OFFSET
 	 */
-	private static final Offset CIVIL_TWILIGHT_OFFSET       = new Offset(-6   , false);
+	public static final Offset CIVIL_TWILIGHT_OFFSET       = new Offset(-6   , false);
 	/**
 	 * Type OFFSET NAUTICAL_TWILIGHT_OFFSET
 	 */
-	private static final Offset NAUTICAL_TWILIGHT_OFFSET    = new Offset(-12  , false);
+	public static final Offset NAUTICAL_TWILIGHT_OFFSET    = new Offset(-12  , false);
 	/**
 	 * Type OFFSET ASTRONOMICAL_TWILIGHT_OFFSET
 	 */
-	private static final Offset ASTRONOMICAL_TWILIGHT_OFFSET= new Offset(-17.8, false);
+	public static final Offset ASTRONOMICAL_TWILIGHT_OFFSET= new Offset(-17.8, false);
 	/**
 	 * Type OFFSET GOLDEN_HOUR_OFFSET
 	 */
-	private static final Offset GOLDEN_HOUR_OFFSET          = new Offset(10.0 , false);
+	public static final Offset GOLDEN_HOUR_OFFSET          = new Offset(10.0 , false);
 	/**
 	 * Type OFFSET MOONRISE_MOONSET_OFFSET
 	 */
-	private static final Offset MOONRISE_MOONSET_OFFSET     = new Offset(0    , false);
+	public static final Offset MOONRISE_MOONSET_OFFSET     = new Offset(0    , false);
+	/**
+	 * {@value #MINUTES_IN_DAY}
+	 */
+	private static final int MINUTES_IN_DAY = 24*60;
+	/**
+	 * {@value #ECLIPSE_WINDOW_MARGIN} Minutes tested before and after the window of a possible eclipse
+	 */
+	private static final int ECLIPSE_WINDOW_MARGIN = 2;
+	/**
+	 * Reusable horizon scan of each thread
+	 */
+	private static final ThreadLocal<HorizonScan> HORIZON_SCANS = ThreadLocal.withInitial(HorizonScan::new);
+	/**
+	 * Offsets of the sun of a day, calculated in a single scan
+	 */
+	private static final Offset[] SUN_OFFSETS = {SUNRISE_SUNET_OFFSET, GOLDEN_HOUR_OFFSET, CIVIL_TWILIGHT_OFFSET, 
+			NAUTICAL_TWILIGHT_OFFSET, ASTRONOMICAL_TWILIGHT_OFFSET};
+	/**
+	 * {@value #YEAR_TASK_DAYS} Days of the year computed by each fork/join task
+	 */
+	private static final int YEAR_TASK_DAYS = 8;
+	/**
+	 * Fork/join pools of the year, per parallelism level
+	 */
+	private static final ConcurrentHashMap<Integer, ForkJoinPool> YEAR_POOLS = new ConcurrentHashMap<Integer, ForkJoinPool>();
+	/**
+	 * Number of the last request of a year, by {@link #calculate()} or {@link #calculateYear(Calendar, GpsCoordinate)}
+	 */
+	private long yearRequested;
+	/**
+	 * Number of the request of the year kept in the year lists of the calculator
+	 */
+	private long yearLoaded;
+	/**
+	 * Parallelism level of the year calculation (1 computes it on the calling thread)
+	 */
+	private int parallelism = ForkJoinPool.getCommonPoolParallelism();
+	/**
+	 * Positions of the bodies shared by every observer
+	 */
+	private EphemerisCache ephemerisCache = EphemerisCache.getShared();
+	/**
+	 * Fitted positions of the bodies, null to use the theories
+	 */
+	private ChebyshevEphemeris chebyshevEphemeris;
+	/**
+	 * Brent iterations of each rise and set of the horizon scans, 0 to keep the crossings of the scans
+	 */
+	private int refinement;
+	/**
+	 * True to test only the minutes of a possible eclipse in the eclipse checks, false to test every minute of
+	 * every day (the legacy loop, see {@link EclipseTeste})
+	 */
+	private boolean eclipseWindows = true;
 	
 	/**
-	 * Class responsible for dates of Perigee and Apogee
+	 * Dates of Perigee and Apogee, per year
 	 */
-	private PerigeeApogeeCalculator perigeeApogeeCalculator;
+	private ApsisCache apsisCache = ApsisCache.getShared();
 	/**
 	 * Apogee List
 	 */
@@ -181,12 +328,17 @@ public class Calculator {
 	ArrayList<ArrayList<SunEvent>> solarYear;
 	/**
 	 * Account For Atmospheric Refraction
+	 * 
+	 * <p>Horizon of an event, in degrees from the horizon (negative values mean below the horizon).
+	 * Besides the constants of this class, any offset can be calculated, 
+	 * e.g. new Offset(-4, false) for the blue hour, see {@link Calculator#calculateSunEvents(CalculationContext, Offset...)}</p>
 	 *
 	 * @author zoglmannk v1.0.0
 	 */
-	private static class Offset {
+	public static class Offset {
 		final double fromHorizon; //in degrees
 		final boolean accountForAtmosphericRefraction;
+		final double horizon; //Z value of the horizon scan
 		/**
 		 * Consturtor 
 		 * @param fromHorizon double value
@@ -195,21 +347,58 @@ public class Calculator {
 		public Offset(double fromHorizon, boolean accountForAtmosphericRefraction) {
 			this.fromHorizon = fromHorizon;
 			this.accountForAtmosphericRefraction = accountForAtmosphericRefraction;
+			this.horizon = HorizonScan.horizon(fromHorizon, accountForAtmosphericRefraction);
+		}
+
+		public double getFromHorizon() {
+			return fromHorizon;
+		}
+
+		public boolean isAccountForAtmosphericRefraction() {
+			return accountForAtmosphericRefraction;
 		}
 	}
+	/**
+	 * Construtor of Solar system Calculator, to be shared through {@link #calculate(CalculationContext)}
+	 */
+	public Calculator() {
+		this.apogeeList = new ArrayList<MoonEvent>();
+		this.perigeeList = new ArrayList<MoonEvent>();
+	}
+	
 	/**
 	 * Construtor of Solar system Calculator 
 	 * @param gps
 	 * @param calendar
 	 */
 	public Calculator(GpsCoordinate gps, Calendar calendar) {
-		this.perigeeApogeeCalculator = new PerigeeApogeeCalculator(calendar);
-		this.apogeeList = new ArrayList<MoonEvent>();
-		this.perigeeList = new ArrayList<MoonEvent>();
+		this();
 		this.gps = gps;   
 		this.calendar = calendar;
 	}
 	
+	/** 
+	 * Calculate Sunset, sunrise and Positions (...) for a request. Thread-safe.
+	 * 
+	 * <p>Only the day of the request is computed here. The year data of the result (lunar, solar and 
+	 * planet year, apogee, perigee and eclipse lists) is computed on the first access to one of its getters.
+	 * None of them touch the state of the calculator.</p>
+	 * 
+	 * @param context location of user and date of interest
+	 * @return result
+	 */
+	public Result calculate (CalculationContext context) {
+		final ObserverContext observer = context.getObserver();
+		final Calendar calendar = context.newCalendar();
+		final EnumSet<Product> products = context.getProducts();
+		final Accuracy accuracy = context.getAccuracy();
+		Result ret = calculateDay(observer, calendar, products, accuracy);
+		if (products.contains(Product.YEAR)) {
+			ret.setYearLoader(result -> calculateYear(calendar, observer, result, products, accuracy));
+		}
+		return ret;
+	}
+	
 	/** 
 	 * Calculate Sunset, sunrise and Positions (...)
 	 * 
@@ -226,97 +415,164 @@ public class Calculator {
 	/** 
 	 * Calculate Sunset, sunrise and Positions (...)
 	 * 
+	 * <p>Only the current day is computed here. The year data of the result (lunar, solar and planet year,
+	 * apogee, perigee and eclipse lists) is computed on the first access to one of its getters, for the
+	 * location and the date of this call. The year getters of the calculator hold that year once it is loaded,
+	 * unless a later call has loaded its own year first.</p>
+	 * 
 	 * @return result
 	 */
 	public Result calculate () {
+		final ObserverContext observer = new ObserverContext(this.gps);
+		Result ret = calculateDay(observer, this.calendar, Product.all(), Accuracy.STANDARD);
+		final Calendar yearCalendar = (Calendar) this.calendar.clone();
+		final long sequence = ++yearRequested;
+		// The year is only computed when the result is asked for it
+		ret.setYearLoader(result -> {
+			calculateYear(yearCalendar, observer, result, Product.all(), Accuracy.STANDARD);
+			setYear(result, sequence);
+		});
+		return ret; 
+	}
+	
+	/** 
+	 * Calculate Sunset, sunrise and Positions (...) of the day, without the year data
+	 * 
+	 * @param observer location of user
+	 * @param calendar date of interest for calculation, not modified
+	 * @param products products to calculate
+	 * @param accuracy accuracy of the positions and of the scans
+	 * @return result
+	 */
+	private Result calculateDay(ObserverContext observer, Calendar calendar, Set<Product> products, Accuracy accuracy) {
 		
-		int julianDate = calculateJulianDate(this.calendar); //note that the julianDate is truncated
-//		System.out.println("- Julian date: "+julianDate);
+		int julianDate = calculateJulianDate(calendar); //note that the julianDate is truncated
 		
 		double daysFromEpoc = (julianDate - NEW_STANDARD_EPOC) + 0.5;
-		System.out.println("Julian Date OF J2000 "+daysFromEpoc);
 		
 		double utcToLocal = calculateUtcToDSTLocal(calendar);
 		double timeZoneShift = -1  * utcToLocal/HOURS_IN_DAY;
-		System.out.println("timeZoneShift "+timeZoneShift);
-		System.out.println("utcToLocal "+utcToLocal);
-		double LST     = calculateLST(daysFromEpoc  , timeZoneShift, this.gps.getLongitude());
-		double nextLST = calculateLST(daysFromEpoc+1, timeZoneShift, this.gps.getLongitude());
+		double LST     = calculateLST(daysFromEpoc  , timeZoneShift, observer);
+		double nextLST = calculateLST(daysFromEpoc+1, timeZoneShift, observer);
 		daysFromEpoc = daysFromEpoc + timeZoneShift;
 		Result ret = new Result();
 		
-		ret.setTimeZone(this.calendar.getTimeZone());
+		ret.setTimeZone(calendar.getTimeZone());
+		
+		DayWindow window = new DayWindow(this, accuracy);
 		
 		//calculate Sun related times
-		Position sunToday    = calculateSunPosition(daysFromEpoc);		
-		Position sunTomorrow = calculateSunPosition(daysFromEpoc+1);
-		sunTomorrow = ensureSecondAscentionGreater(sunToday, sunTomorrow);
-		ret.setSun(calculate(SUNRISE_SUNET_OFFSET, this.gps, LST, sunToday, sunTomorrow));		
-		ret.setGoldenHour(calculate(GOLDEN_HOUR_OFFSET, this.gps, LST, sunToday, sunTomorrow));
-		ret.setCivilTwilight(calculate(CIVIL_TWILIGHT_OFFSET, this.gps, LST, sunToday, sunTomorrow));
-		ret.setNauticalTwilight(calculate(NAUTICAL_TWILIGHT_OFFSET, this.gps, LST, sunToday, sunTomorrow));
-		ret.setAstronomicalTwilight(calculate(ASTRONOMICAL_TWILIGHT_OFFSET, this.gps, LST, sunToday, sunTomorrow));
-		ret.getSun().setZodiac(zodiac(sunToday.getLongitudeEcliptic()));
-		ret.getSun().setPosition(sunToday);
+		if (products.contains(Product.SUN_RISE_SET) || products.contains(Product.TWILIGHTS)) {
+			Position sunToday    = window.today(Body.SUN, daysFromEpoc);		
+			Position sunTomorrow = window.tomorrow(Body.SUN, daysFromEpoc);
+			sunTomorrow = ensureSecondAscentionGreater(sunToday, sunTomorrow);
+			Event sun;
+			if (products.contains(Product.TWILIGHTS)) {
+				Event[] sunEvents = calculate(SUN_OFFSETS, observer, LST, daysFromEpoc, sunToday, sunTomorrow, accuracy);
+				sun = sunEvents[0];
+				ret.setGoldenHour(sunEvents[1]);
+				ret.setCivilTwilight(sunEvents[2]);
+				ret.setNauticalTwilight(sunEvents[3]);
+				ret.setAstronomicalTwilight(sunEvents[4]);
+			} else {
+				sun = calculate(SUNRISE_SUNET_OFFSET, observer, LST, daysFromEpoc, sunToday, sunTomorrow, accuracy);
+			}
+			if (products.contains(Product.SUN_RISE_SET)) {
+				ret.setSun(sun);		
+				ret.getSun().setZodiac(zodiac(sunToday.getLongitudeEcliptic()));
+				ret.getSun().setPosition(sunToday);
+			}
+		}
+		
+		if (products.contains(Product.MOON)) {
+			calculateDayMoon(ret, observer, calendar, julianDate, daysFromEpoc, LST, nextLST, window, 
+					products.contains(Product.APSIDES));
+		}
 		
+		if (products.contains(Product.PLANETS)) {
+			calculateDayPlanets(ret, observer, calendar, julianDate, daysFromEpoc, LST, window);
+		}
+		return ret; 
+	}
+	
+	/**
+	 * Calculate the moon of today and of tomorrow of a day
+	 * 
+	 * @param ret result of the day
+	 * @param observer location of user
+	 * @param calendar date of interest for calculation, not modified
+	 * @param julianDate truncated julian date of the day
+	 * @param daysFromEpoc days From Epoc of the day
+	 * @param LST LST of the day
+	 * @param nextLST LST of the next day
+	 * @param window positions of the day
+	 * @param apsides true to set the perigee or apogee of the moon events
+	 */
+	private void calculateDayMoon(Result ret, ObserverContext observer, Calendar calendar, int julianDate, 
+			double daysFromEpoc, double LST, double nextLST, DayWindow window, boolean apsides) {
 		//calculate today moon
-		Position moonToday    = calculateMoonPosition(daysFromEpoc);
-		Position moonTomorrow = calculateMoonPosition(daysFromEpoc+1);
+		Position moonToday    = window.today(Body.MOON, daysFromEpoc);
+		Position moonTomorrow = window.tomorrow(Body.MOON, daysFromEpoc);
 		moonTomorrow = ensureSecondAscentionGreater(moonToday, moonTomorrow);		
-		ret.setMoonToday(new MoonEvent(calculate(MOONRISE_MOONSET_OFFSET, this.gps, LST, moonToday, moonTomorrow)));
+		ret.setMoonToday(new MoonEvent(calculate(MOONRISE_MOONSET_OFFSET, observer, LST, daysFromEpoc, moonToday, moonTomorrow, window.getAccuracy())));
 		ret.getMoonToday().setAgeInDays(calculateMoonsAge(julianDate+1));
 		ret.getMoonToday().setIlluminationPercent(calculateMoonIlluminationPercent(ret.getMoonToday().getAgeInDays()+1));
 		ret.getMoonToday().setZodiac(zodiac(moonToday.getLongitudeEcliptic()));
 		ret.getMoonToday().setPhase(phase(ret.getMoonToday().getAgeInDays()));
 		ret.getMoonToday().setDate(julianDatetoDate((double) julianDate));
-		ret.getMoonToday().setPerigeeOrApogee(isApogeuOrPerigeu(ret.getMoonToday()));
-		ret.getMoonToday().setAnglePhase(getAnglePhase(this.calendar.getTime()));
+		if (apsides) {
+			ret.getMoonToday().setPerigeeOrApogee(findApogeuOrPerigeu(ret.getMoonToday(), apsisCache.get(calendar.get(Calendar.YEAR)), false));
+		}
+		ret.getMoonToday().setAnglePhase(getAnglePhase(calendar.getTime()));
 		ret.getMoonToday().setJulianDate(julianDate);
 		//calculate tomorrow moon
-		moonTomorrow = calculateMoonPosition(daysFromEpoc+1);
-		Position moonDayAfter = calculateMoonPosition(daysFromEpoc+2);
+		moonTomorrow = window.today(Body.MOON, daysFromEpoc+1);
+		Position moonDayAfter = window.tomorrow(Body.MOON, daysFromEpoc+1);
 		moonDayAfter = ensureSecondAscentionGreater(moonTomorrow, moonDayAfter);
-		ret.setMoonTomorrow(new MoonEvent(calculate(MOONRISE_MOONSET_OFFSET, this.gps, nextLST, moonTomorrow, moonDayAfter)));
+		ret.setMoonTomorrow(new MoonEvent(calculate(MOONRISE_MOONSET_OFFSET, observer, nextLST, daysFromEpoc+1, moonTomorrow, moonDayAfter, window.getAccuracy())));
 		ret.getMoonTomorrow().setAgeInDays(calculateMoonsAge(julianDate+2));
 		ret.getMoonTomorrow().setIlluminationPercent(calculateMoonIlluminationPercent(ret.getMoonTomorrow().getAgeInDays()+1));
 		ret.getMoonTomorrow().setZodiac(zodiac(moonTomorrow.getLongitudeEcliptic()));
 		ret.getMoonTomorrow().setPhase(phase(ret.getMoonTomorrow().getAgeInDays()));
 		ret.getMoonTomorrow().setDate(julianDatetoDate((double) julianDate+1));
-		ret.getMoonTomorrow().setPerigeeOrApogee(isApogeuOrPerigeu(ret.getMoonTomorrow()));
-		ret.getMoonTomorrow().setAnglePhase(getAnglePhase(this.calendar.getTime()));
+		if (apsides) {
+			ret.getMoonTomorrow().setPerigeeOrApogee(findApogeuOrPerigeu(ret.getMoonTomorrow(), apsisCache.get(calendar.get(Calendar.YEAR)), false));
+		}
+		ret.getMoonTomorrow().setAnglePhase(getAnglePhase(calendar.getTime()));
 		ret.getMoonTomorrow().setJulianDate(julianDate);
-		
-		OrbitCalculator planetCalc = new OrbitCalculator();
-		ArrayList<Event> planetList;
+	}
+	
+	/**
+	 * Calculate the planets of a day
+	 * 
+	 * @param ret result of the day
+	 * @param observer location of user
+	 * @param calendar date of interest for calculation, not modified
+	 * @param julianDate truncated julian date of the day
+	 * @param daysFromEpoc days From Epoc of the day
+	 * @param LST LST of the day
+	 * @param window positions of the day
+	 */
+	private void calculateDayPlanets(Result ret, ObserverContext observer, Calendar calendar, int julianDate, 
+			double daysFromEpoc, double LST, DayWindow window) {
 		ArrayList<Event> list = new ArrayList<Event>();
-		planetList = planetCalc.computeElementsPosition(daysFromEpoc);
 		
-		for (int i=0; i<planetList.size(); i++){
-			Position planetToday    = planetList.get(i).getPosition();
-			Position planetTomorrow = planetList.get(i).getPositionTomorrow();
-			planetList.get(i).setPosition(planetToday);
+		window.movePlanets(daysFromEpoc);
+		for (Body planet : Body.PLANETS){
+			Position planetToday    = window.today(planet, daysFromEpoc);
+			Position planetTomorrow = window.tomorrow(planet, daysFromEpoc);
 			
-			Event aux = calculate(SUNRISE_SUNET_OFFSET, this.gps, LST, planetToday, planetTomorrow);
+			Event aux = calculate(SUNRISE_SUNET_OFFSET, observer, LST, daysFromEpoc, planetToday, planetTomorrow, window.getAccuracy());
 			//Teste NAUTICAL_TWILIGHT_OFFSET
 			aux.setDate(calendar.getTime());
 			aux.setJulianDate(julianDate);
-			aux.setName(planetList.get(i).getName());
+			aux.setName(planet.getDisplayName());
 			aux.setPosition(planetToday);
 			aux.setZodiac(zodiac(planetToday.getLongitudeEcliptic()));
 			list.add(aux);
 		}
 		
-		calculateYear(this.calendar, this.gps);
-		ret.setLunarYear(getLunarYear());
-		ret.setSolarYear(getSolarYear());
-		ret.setPlanetYear(getPlanetYear());
-		ret.setApogeeList(getApogeeList());
-		ret.setPerigeeList(getPerigeeList());
-		ret.setEclipseLunar(getEclipseLunar());
-		ret.setEclipseSolar(getEclipseSolar());
-		
 		ret.setPlanetList(list);
-		return ret; 
 	}
 	
 	/**
@@ -324,22 +580,18 @@ public class Calculator {
 	 * @param calendar instance of calendar
 	 * @return double value of real DST (Date Summer Time)
 	 */
-	private double calculateUtcToDSTLocal(Calendar calendar) {	
-		int offset = calendar.get(Calendar.DST_OFFSET);
-		Double rawOffSet = (double) calendar.getTimeZone().getRawOffset();
-		Double dstSavings = (double) calendar.getTimeZone().getDSTSavings();
-		Double UTC_TO_DST = 0d;
-		try{
-			UTC_TO_DST = rawOffSet / dstSavings;
-		}
-		catch (ArithmeticException e){
-			System.out.println("Erro function calculateUtcToDSTLocal "+e.getMessage());
-		}
-		if (offset>0){
-			UTC_TO_DST = UTC_TO_DST + 1;
-//			System.out.println("Summer Time");
-		}
-		return UTC_TO_DST;
+	double calculateUtcToDSTLocal(Calendar calendar) {	
+		return calculateUtcToDSTLocal(calendar.getTimeZone(), calendar.getTimeInMillis());
+	}
+	
+	/**
+	 * Offset from UTC of the local time of an instant, with the Summer Time
+	 * @param zone time zone
+	 * @param millis instant (milliseconds since 1970-01-01T00:00Z)
+	 * @return double value of real DST (Date Summer Time), in hours
+	 */
+	double calculateUtcToDSTLocal(TimeZone zone, long millis) {
+		return zone.getOffset(millis) / (double) JulianDay.MILLIS_IN_HOUR;
 	}
 
 	/**
@@ -391,62 +643,106 @@ public class Calculator {
 	 * Calcule and generate Positions
 	 * 
 	 * @param offset Offset
-	 * @param gps GpsCoordinate
+	 * @param observer ObserverContext
 	 * @param LST Calendar
+	 * @param daysFromEpoc days From Epoc of the day
 	 * @param today Position
 	 * @param tomorrow Position
+	 * @param accuracy steps of the scan
 	 * @return novo evento Event
 	 */
 	private Event calculate(
 			Offset offset, 
-			GpsCoordinate gps, 
+			ObserverContext observer, 
 			double LST, 
+			double daysFromEpoc,
 			Position today,
-			Position tomorrow) {
-		
-		double previousAscention = today.getRightAscention();
-		double previousDeclination = today.getDeclination();
-		
-//		System.out.println(previousDeclination);
-		
-		double changeInAscention   = tomorrow.getRightAscention() - today.getRightAscention();
-		double changeInDeclination = tomorrow.getDeclination()    - today.getDeclination();
-		
-		double previousV = 0; //arbitrary initial value
-		
-		TestResult testResult = new TestResult();
+			Position tomorrow,
+			Accuracy accuracy) {
+		HorizonScan scan = HORIZON_SCANS.get();
+		scan.setTrack(today, tomorrow, accuracy.getScanSteps());
+		scan.setRefinement(refinement);
+		scan.scan(observer.getSinLatitude(), observer.getCosLatitude(), offset.horizon, LST);
+		return createEvent(scan, 0, daysFromEpoc, today);
+	}
+	
+	/** 
+	 * Calcule the events of many offsets in a single scan of the day,
+	 * the altitude of the body is evaluated once per hour for all of them
+	 * 
+	 * @param offsets Offset of each event
+	 * @param observer ObserverContext
+	 * @param LST Calendar
+	 * @param daysFromEpoc days From Epoc of the day
+	 * @param today Position
+	 * @param tomorrow Position
+	 * @param accuracy steps of the scan
+	 * @return one event per offset, in the order of offsets
+	 */
+	private Event[] calculate(
+			Offset[] offsets, 
+			ObserverContext observer, 
+			double LST, 
+			double daysFromEpoc,
+			Position today,
+			Position tomorrow,
+			Accuracy accuracy) {
 		
+		HorizonScan scan = HORIZON_SCANS.get();
+		double[] horizons = scan.getHorizons(offsets.length);
+		for (int k = 0; k < offsets.length; k++) {
+			horizons[k] = offsets[k].horizon;
+		}
+		scan.setTrack(today, tomorrow, accuracy.getScanSteps());
+		scan.setRefinement(refinement);
+		scan.scan(observer.getSinLatitude(), observer.getCosLatitude(), horizons, offsets.length, LST);
 		
-		for(int hourOfDay=0; hourOfDay<HOURS_IN_DAY; hourOfDay++) {
-			
-			double fractionOfDay = (hourOfDay+1) / ((double)HOURS_IN_DAY);
-			double asention    = today.getRightAscention() + fractionOfDay*changeInAscention;
-			double declination = today.getDeclination()    + fractionOfDay*changeInDeclination;
-					
-			TestResult intermediateTestResult =  testHourForEvent(
-										   hourOfDay,
-										   offset,
-										   previousAscention,   asention, 
-										   previousDeclination, declination,
-										   previousV, gps, LST);
-			
-			if(intermediateTestResult.rise != null) {
-				testResult.rise       = intermediateTestResult.rise;
-				testResult.riseAzimuth = intermediateTestResult.riseAzimuth;
-			}
-			
-			if(intermediateTestResult.set != null) {
-				testResult.set       = intermediateTestResult.set;
-				testResult.setAzimuth = intermediateTestResult.setAzimuth;
-			}
-			
-			previousAscention   = asention;
-			previousDeclination = declination;
-			previousV           = intermediateTestResult.V;
-//			System.out.println(hourOfDay + " " +declination);
+		Event[] ret = new Event[offsets.length];
+		for (int k = 0; k < offsets.length; k++) {
+			ret[k] = createEvent(scan, k, daysFromEpoc, today);
 		}
+		return ret;
+	}
 	
-		return createEvent(testResult, today);
+	/**
+	 * generate Positions from a horizon of the last scan, with the instants of the rise and the set
+	 * 
+	 * @param scan HorizonScan
+	 * @param k index of the horizon
+	 * @param daysFromEpoc days From Epoc of the day
+	 * @param today Position
+	 * @return novo evento Event
+	 */
+	private Event createEvent(HorizonScan scan, int k, double daysFromEpoc, Position today) {
+		Event ret = createEvent(scan.getRiseMinute(k), scan.getRiseAzimuth(k), scan.getSetMinute(k), scan.getSetAzimuth(k), 
+				scan.getType(k), today);
+		ret.setRiseEpochSecond(J2000_EPOCH_SECOND + (daysFromEpoc + scan.getRiseFraction(k))*SECONDS_IN_DAY);
+		ret.setSetEpochSecond(J2000_EPOCH_SECOND + (daysFromEpoc + scan.getSetFraction(k))*SECONDS_IN_DAY);
+		return ret;
+	}
+	
+	/**
+	 * Events of the sun for any number of offsets (sunrise, twilights or user defined bands), 
+	 * calculated in a single scan of the day. Thread-safe as {@link #calculate(CalculationContext)}.
+	 * 
+	 * @param context location and date of interest
+	 * @param offsets Offset of each event, e.g. {@link #CIVIL_TWILIGHT_OFFSET} or new Offset(-4, false)
+	 * @return one event per offset, in the order of offsets
+	 */
+	public Event[] calculateSunEvents(CalculationContext context, Offset... offsets) {
+		Calendar calendar = context.newCalendar();
+		ObserverContext observer = context.getObserver();
+		
+		int julianDate = calculateJulianDate(calendar); //note that the julianDate is truncated
+		double daysFromEpoc = (julianDate - NEW_STANDARD_EPOC) + 0.5;
+		double timeZoneShift = -1  * calculateUtcToDSTLocal(calendar)/HOURS_IN_DAY;
+		double LST = calculateLST(daysFromEpoc, timeZoneShift, observer);
+		daysFromEpoc = daysFromEpoc + timeZoneShift;
+		
+		Position sunToday    = position(Body.SUN, daysFromEpoc, context.getAccuracy());		
+		Position sunTomorrow = position(Body.SUN, daysFromEpoc+1, context.getAccuracy());
+		sunTomorrow = ensureSecondAscentionGreater(sunToday, sunTomorrow);
+		return calculate(offsets, observer, LST, daysFromEpoc, sunToday, sunTomorrow, context.getAccuracy());
 	}
 	
 	/** 
@@ -456,20 +752,89 @@ public class Calculator {
 	 * @return novo evento Event 
 	 */
 	public Event createEvent(TestResult testResult, Position today) {
+		return createEvent(
+				testResult.rise == null ? HorizonScan.NONE : testResult.rise.getHour()*MINUTE_IN_HOURS + testResult.rise.getMin(), 
+				testResult.riseAzimuth, 
+				testResult.set == null ? HorizonScan.NONE : testResult.set.getHour()*MINUTE_IN_HOURS + testResult.set.getMin(), 
+				testResult.setAzimuth, 
+				findTypeOfDay(testResult, testResult.V), today);
+	}
+	
+	/** 
+	 * generate Positions from the minutes of day of a scan, the amounts and the crossings
+	 * of {@link #setRisenAndSetAmounts}, {@link #setMeridianCrossing} and {@link #setAntimeridianCrossing}
+	 * are calculated in minutes and each Time of the event is created once
+	 * 
+	 * @param riseMinute minute of day of the rise or {@link HorizonScan#NONE}
+	 * @param riseAzimuth azimuth of the rise
+	 * @param setMinute minute of day of the set or {@link HorizonScan#NONE}
+	 * @param setAzimuth azimuth of the set
+	 * @param type type of day
+	 * @param today Position
+	 * @return novo evento Event 
+	 */
+	private Event createEvent(int riseMinute, double riseAzimuth, int setMinute, double setAzimuth,
+			Event.HorizonToHorizonCrossing type, Position today) {
 		Event ret = new Event();
 		
-		ret.setRise(testResult.rise);
-		ret.setSet(testResult.set);
-		ret.setRiseAzimuth(testResult.riseAzimuth);
-		ret.setSetAzimuth(testResult.setAzimuth);
+		Time rise = riseMinute == HorizonScan.NONE ? null : time(riseMinute);
+		Time set = setMinute == HorizonScan.NONE ? null : time(setMinute);
+		ret.setRise(rise);
+		ret.setSet(set);
+		ret.setRiseAzimuth(riseAzimuth);
+		ret.setSetAzimuth(setAzimuth);
 		ret.setPosition(today);
-		ret.setType(findTypeOfDay(testResult, testResult.V));
-		setRisenAndSetAmounts(ret);
-		setMeridianCrossing(ret);
-		setAntimeridianCrossing(ret);
+		ret.setType(type);
+		
+		switch(type) {
+		case NO_CHANGE_PREVIOUSLY_RISEN:
+			ret.setRisenAmount(time(MINUTES_IN_DAY));
+			ret.setSetAmount(time(0));
+			break;
+		case NO_CHANGE_PREVIOUSLY_SET:
+			ret.setRisenAmount(time(0));
+			ret.setSetAmount(time(MINUTES_IN_DAY));
+			break;
+		case ONLY_SET:
+			ret.setRisenAmount(set);
+			ret.setSetAmount(time(differenceMinutes(MINUTES_IN_DAY, setMinute)));
+			break;
+		case ONLY_RISEN:
+			ret.setRisenAmount(time(differenceMinutes(MINUTES_IN_DAY, riseMinute)));
+			ret.setSetAmount(rise);
+			break;
+		default:
+			int risenAmount = differenceMinutes(setMinute, riseMinute);
+			int setAmount = differenceMinutes(riseMinute, setMinute);
+			ret.setRisenAmount(time(risenAmount));
+			ret.setSetAmount(time(setAmount));
+			ret.setMeridianCrossing(time(riseMinute + risenAmount/2));
+			int antimeridian = setMinute + setAmount/2;
+			ret.setAntimeridianCrossing(time(antimeridian >= MINUTES_IN_DAY ? antimeridian - MINUTES_IN_DAY : antimeridian));
+		}
 		
 		return ret;
 	}
+	
+	/**
+	 * Time of minutes of day
+	 * @param minutes minutes of day
+	 * @return Time
+	 */
+	private static Time time(int minutes) {
+		return new Time(minutes/MINUTE_IN_HOURS, minutes%MINUTE_IN_HOURS);
+	}
+	
+	/**
+	 * The difference of minutes of day as {@link #difference(Time, Time)}
+	 * @param m1 minutes of day
+	 * @param m2 minutes of day
+	 * @return minutes difference
+	 */
+	private static int differenceMinutes(int m1, int m2) {
+		int minutes = m1 - m2;
+		return minutes < 0 ? minutes + MINUTES_IN_DAY : minutes;
+	}
 		
 	
 	/**
@@ -617,6 +982,16 @@ public class Calculator {
 	 * @return position of sun @{link Position} 
 	 */
 	public Position calculateSunPosition(double daysFromEpoc) {
+		return calculateSunPosition(daysFromEpoc, Accuracy.STANDARD);
+	}
+	
+	/**
+	 * calculateSunPosition with an accuracy, each series keeps its small terms while the largest of them is kept
+	 * @param daysFromEpoc days From Epoc
+	 * @param accuracy terms of the series evaluated
+	 * @return position of sun @{link Position} 
+	 */
+	public Position calculateSunPosition(double daysFromEpoc, Accuracy accuracy) {
 		double numCenturiesSince1900 = daysFromEpoc/NUM_DAYS_IN_CENTURY + 1;
 		
 		//   Fundamental arguments  (Van Flandern & Pulkkinen, 1979)
@@ -633,40 +1008,133 @@ public class Calculator {
 		V =     .39785 * Math.sin(meanLongitudeOfSun);
 		V = V - .01000 * Math.sin(meanLongitudeOfSun-meanAnomalyOfSun);
 		V = V + .00333 * Math.sin(meanLongitudeOfSun+meanAnomalyOfSun);
-		V = V - .00021 * numCenturiesSince1900 * Math.sin(meanLongitudeOfSun);
-		V = V + .00004 * Math.sin(meanLongitudeOfSun+2*meanAnomalyOfSun);
-		V = V - .00004 * Math.cos(meanLongitudeOfSun);
-		V = V - .00004 * Math.sin(longitudeOfLunarAscendingNode-meanLongitudeOfSun);
-		V = V + .00003 * numCenturiesSince1900 * Math.sin(meanLongitudeOfSun-meanAnomalyOfSun);
+		if (accuracy.keeps(.00021)) {
+			V = V - .00021 * numCenturiesSince1900 * Math.sin(meanLongitudeOfSun);
+			V = V + .00004 * Math.sin(meanLongitudeOfSun+2*meanAnomalyOfSun);
+			V = V - .00004 * Math.cos(meanLongitudeOfSun);
+			V = V - .00004 * Math.sin(longitudeOfLunarAscendingNode-meanLongitudeOfSun);
+			V = V + .00003 * numCenturiesSince1900 * Math.sin(meanLongitudeOfSun-meanAnomalyOfSun);
+		}
 		
 		double U;
 		U = 1 - .03349 * Math.cos(meanAnomalyOfSun);
-		U = U - .00014 * Math.cos(2*meanLongitudeOfSun);
-		U = U + .00008 * Math.cos(meanLongitudeOfSun);
-		U = U - .00003 * Math.sin(meanAnomalyOfSun-meanAnomalyOfJupiter);
+		if (accuracy.keeps(.00014)) {
+			U = U - .00014 * Math.cos(2*meanLongitudeOfSun);
+			U = U + .00008 * Math.cos(meanLongitudeOfSun);
+			U = U - .00003 * Math.sin(meanAnomalyOfSun-meanAnomalyOfJupiter);
+		}
 
 		double W;
 		W =    -.04129 * Math.sin(2*meanLongitudeOfSun);
 		W = W + .03211 * Math.sin(meanAnomalyOfSun);
 		W = W + .00104 * Math.sin(2*meanLongitudeOfSun-meanAnomalyOfSun);
-		W = W - .00035 * Math.sin(2*meanLongitudeOfSun+meanAnomalyOfSun);
-		W = W - .00010;
-		W = W - .00008 * numCenturiesSince1900 * Math.sin(meanAnomalyOfSun);
-		W = W - .00008 * Math.sin(longitudeOfLunarAscendingNode);
-		W = W + .00007 * Math.sin(2*meanAnomalyOfSun);
-		W = W + .00005 * numCenturiesSince1900 * Math.sin(2*meanLongitudeOfSun);
-		W = W + .00003 * Math.sin(meanLongitudeOfMoon-meanLongitudeOfSun);
-		W = W - .00002 * Math.cos(meanAnomalyOfSun-meanAnomalyOfJupiter);
-		W = W + .00002 * Math.sin(4*meanAnomalyOfSun-8*meanAnomalyOfMars+3*meanAnomalyOfJupiter);
-		W = W - .00002 * Math.sin(meanAnomalyOfSun-meanAnomalyOfVenus);
-		W = W - .00002 * Math.cos(2*meanAnomalyOfSun-2*meanAnomalyOfVenus);
+		if (accuracy.keeps(.00035)) {
+			W = W - .00035 * Math.sin(2*meanLongitudeOfSun+meanAnomalyOfSun);
+			W = W - .00010;
+			W = W - .00008 * numCenturiesSince1900 * Math.sin(meanAnomalyOfSun);
+			W = W - .00008 * Math.sin(longitudeOfLunarAscendingNode);
+			W = W + .00007 * Math.sin(2*meanAnomalyOfSun);
+			W = W + .00005 * numCenturiesSince1900 * Math.sin(2*meanLongitudeOfSun);
+			W = W + .00003 * Math.sin(meanLongitudeOfMoon-meanLongitudeOfSun);
+			W = W - .00002 * Math.cos(meanAnomalyOfSun-meanAnomalyOfJupiter);
+			W = W + .00002 * Math.sin(4*meanAnomalyOfSun-8*meanAnomalyOfMars+3*meanAnomalyOfJupiter);
+			W = W - .00002 * Math.sin(meanAnomalyOfSun-meanAnomalyOfVenus);
+			W = W - .00002 * Math.cos(2*meanAnomalyOfSun-2*meanAnomalyOfVenus);
+		}
 		
 		Position position = calculatePosition(meanLongitudeOfSun, U, V, W);
 
 	    return position;
 	}
 	
+	/**
+	 * Position of a body from the Chebyshev ephemeris when it covers the epoch (except for PRECISE), 
+	 * otherwise through the ephemeris cache, shared with every other observer
+	 * @param body element of the solar system
+	 * @param daysFromEpoc days From Epoc
+	 * @param accuracy accuracy of the position
+	 * @return new Position
+	 */
+	Position position(Body body, double daysFromEpoc, Accuracy accuracy) {
+		ChebyshevEphemeris chebyshev = chebyshevEphemeris;
+		if (chebyshev != null && accuracy != Accuracy.PRECISE && chebyshev.covers(body, daysFromEpoc)) {
+			return chebyshev.position(body, daysFromEpoc);
+		}
+		return ephemerisCache.get(body, accuracy, daysFromEpoc, d -> calculateBodyPosition(body, d, accuracy));
+	}
+	
+	/**
+	 * Positions of all the planets at an epoch, as {@link #position(Body, double, Accuracy)}. The planets missing 
+	 * from the ephemeris cache are computed together, with the orbit of the Earth solved once
+	 * @param daysFromEpoc days From Epoc
+	 * @param accuracy accuracy of the positions
+	 * @param positions out, new Position of each planet in the order of {@link Body#PLANETS}
+	 */
+	void planetPositions(double daysFromEpoc, Accuracy accuracy, Position[] positions) {
+		ChebyshevEphemeris chebyshev = accuracy != Accuracy.PRECISE ? chebyshevEphemeris : null;
+		OrbitCalculator orbits = PlanetOrbits.ORBIT_CALCULATOR;
+		double[][] elements = new double[1][];
+		for (int i = 0; i < Body.PLANETS.length; i++) {
+			Body planet = Body.PLANETS[i];
+			if (chebyshev != null && chebyshev.covers(planet, daysFromEpoc)) {
+				positions[i] = chebyshev.position(planet, daysFromEpoc);
+				continue;
+			}
+			positions[i] = ephemerisCache.get(planet, accuracy, daysFromEpoc, d -> {
+				if (elements[0] == null) {
+					elements[0] = new double[OrbitCalculator.ELEMENTS*OrbitCalculator.COMPONENTS];
+					orbits.computePositions(d, accuracy.getKeplerTolerance(), elements[0]);
+				}
+				return orbits.toPosition(elements[0], planet.getElement());
+			});
+		}
+	}
+	
+	/**
+	 * Position of a body, computed by the theory of the sun, of the moon or by the orbit of the planet
+	 * @param body element of the solar system
+	 * @param daysFromEpoc days From Epoc
+	 * @return Position
+	 */
+	public Position calculateBodyPosition(Body body, double daysFromEpoc) {
+		return calculateBodyPosition(body, daysFromEpoc, Accuracy.STANDARD);
+	}
+	
+	/**
+	 * Position of a body with an accuracy, computed by the theory of the sun, of the moon or by the orbit of the planet
+	 * @param body element of the solar system
+	 * @param daysFromEpoc days From Epoc
+	 * @param accuracy accuracy of the position
+	 * @return Position
+	 */
+	public Position calculateBodyPosition(Body body, double daysFromEpoc, Accuracy accuracy) {
+		switch (body) {
+		case SUN:
+			return calculateSunPosition(daysFromEpoc, accuracy);
+		case MOON:
+			return calculateMoonPosition(daysFromEpoc, accuracy);
+		default:
+			return PlanetOrbits.ORBIT_CALCULATOR.computeElementPosition(body.getElement(), daysFromEpoc, 
+					accuracy.getKeplerTolerance());
+		}
+	}
+	
+	/**
+	 * calculateMoonPosition
+	 * @param daysFromEpoc days From Epoc
+	 * @return position of moon @{link Position} 
+	 */
 	public Position calculateMoonPosition(double daysFromEpoc) {
+		return calculateMoonPosition(daysFromEpoc, Accuracy.STANDARD);
+	}
+	
+	/**
+	 * calculateMoonPosition with an accuracy
+	 * @param daysFromEpoc days From Epoc
+	 * @param accuracy terms of the series evaluated
+	 * @return position of moon @{link Position} 
+	 */
+	public Position calculateMoonPosition(double daysFromEpoc, Accuracy accuracy) {
 		double numCenturiesSince1900 = daysFromEpoc/NUM_DAYS_IN_CENTURY + 1;
 		
 		//   Fundamental arguments (Van Flandern & Pulkkinen, 1979)		
@@ -688,184 +1156,11 @@ public class Calculator {
 		double F = meanAnomalyOfSun;              // 8
 		double G = meanLongitudeOfVenus;          // 12
 		
-		double V;
-		V =     .39558 * Math.sin(B+D);
-		V = V + .08200 * Math.sin(B);
-		V = V + .03257 * Math.sin(A-B-D);
-		V = V + .01092 * Math.sin(A+B+D);
-		V = V + .00666 * Math.sin(A-B);
-		V = V - .00644 * Math.sin(A+B-2*C+D);
-		V = V - .00331 * Math.sin(B-2*C+D);
-		V = V - .00304 * Math.sin(B-2*C);
-		V = V - .00240 * Math.sin(A-B-2*C-D);
-		V = V + .00226 * Math.sin(A+B);
-		V = V - .00108 * Math.sin(A+B-2*C);
-		V = V - .00079 * Math.sin(B-D);
-		V = V + .00078 * Math.sin(B+2*C+D);
-		V = V + .00066 * Math.sin(B+D-F);
-		V = V - .00062 * Math.sin(B+D+F);
-		V = V - .00050 * Math.sin(A-B-2*C);
-		V = V + .00045 * Math.sin(2*A+B+D);
-		V = V - .00031 * Math.sin(2*A+B-2*C+D);
-		V = V - .00027 * Math.sin(A+B-2*C+D+F);
-		V = V - .00024 * Math.sin(B-2*C+D+F);
-		V = V - .00021 * numCenturiesSince1900 * Math.sin(B+D);
-		V = V + .00018 * Math.sin(B-C+D);
-		V = V + .00016 * Math.sin(B+2*C);
-		V = V + .00016 * Math.sin(A-B-D-F);
-		V = V - .00016 * Math.sin(2*A-B-D);
-		V = V - .00015 * Math.sin(B-2*C+F);
-		V = V - .00012 * Math.sin(A-B-2*C-D+F);
-		V = V - .00011 * Math.sin(A-B-D+F);
-		V = V + .00009 * Math.sin(A+B+D-F);
-		V = V + .00009 * Math.sin(2*A+B);
-		V = V + .00008 * Math.sin(2*A-B);
-		V = V + .00008 * Math.sin(A+B+2*C+D);
-		V = V - .00008 * Math.sin(3*B-2*C+D);
-		V = V + .00007 * Math.sin(A-B+2*C);
-		V = V - .00007 * Math.sin(2*A-B-2*C-D);
-		V = V - .00007 * Math.sin(A+B+D+F);
-		V = V - .00006 * Math.sin(B+C+D);
-		V = V + .00006 * Math.sin(B-2*C-F);
-		V = V + .00006 * Math.sin(A-B+D);
-		V = V + .00006 * Math.sin(B+2*C+D-F);
-		V = V - .00005 * Math.sin(A+B-2*C+F);
-		V = V - .00004 * Math.sin(2*A+B-2*C);
-		V = V + .00004 * Math.sin(A-3*B-D);
-		V = V + .00004 * Math.sin(A-B-F);
-		V = V - .00003 * Math.sin(A-B+F);
-		V = V + .00003 * Math.sin(B-C);
-		V = V + .00003 * Math.sin(B-2*C+D-F);
-		V = V - .00003 * Math.sin(B-2*C-D);
-		V = V + .00003 * Math.sin(A+B-2*C+D-F);
-		V = V + .00003 * Math.sin(B-F);
-		V = V - .00003 * Math.sin(B-C+D-F);
-		V = V - .00002 * Math.sin(A-B-2*C+F);
-		V = V - .00002 * Math.sin(B+F);
-		V = V + .00002 * Math.sin(A+B-C+D);
-		V = V - .00002 * Math.sin(A+B-D);
-		V = V + .00002 * Math.sin(3*A+B+D);
-		V = V - .00002 * Math.sin(2*A-B-4*C-D);
-		V = V + .00002 * Math.sin(A-B-2*C-D-F);
-		V = V - .00002 * numCenturiesSince1900 * Math.sin(A-B-D);
-		V = V - .00002 * Math.sin(A-B-4*C-D);
-		V = V - .00002 * Math.sin(A+B-4*C);
-		V = V - .00002 * Math.sin(2*A-B-2*C);
-		V = V + .00002 * Math.sin(A+B+2*C);
-		V = V + .00002 * Math.sin(A+B-F);
-		
-		
-		double U;
-		U = 1 - .10828 * Math.cos(A);
-		U = U - .01880 * Math.cos(A-2*C);
-		U = U - .01479 * Math.cos(2*C);
-		U = U + .00181 * Math.cos(2*A-2*C);
-		U = U - .00147 * Math.cos(2*A);
-		U = U - .00105 * Math.cos(2*C-F);
-		U = U - .00075 * Math.cos(A-2*C+F);
-		U = U - .00067 * Math.cos(A-F);
-		U = U + .00057 * Math.cos(C);
-		U = U + .00055 * Math.cos(A+F);
-		U = U - .00046 * Math.cos(A+2*C);
-		U = U + .00041 * Math.cos(A-2*B);
-		U = U + .00024 * Math.cos(F);
-		U = U + .00017 * Math.cos(2*C+F);
-		U = U - .00013 * Math.cos(A-2*C-F);
-		U = U - .00010 * Math.cos(A-4*C);
-		U = U - .00009 * Math.cos(C+F);
-		U = U + .00007 * Math.cos(2*A-2*C+F);
-		U = U + .00006 * Math.cos(3*A-2*C);
-		U = U + .00006 * Math.cos(2*B-2*C);
-		U = U - .00005 * Math.cos(2*C-2*F);
-		U = U - .00005 * Math.cos(2*A-4*C);
-		U = U + .00005 * Math.cos(A+2*B-2*C);
-		U = U - .00005 * Math.cos(A-C);
-		U = U - .00004 * Math.cos(A+2*C-F);
-		U = U - .00004 * Math.cos(3*A);
-		U = U - .00003 * Math.cos(A-4*C+F);
-		U = U - .00003 * Math.cos(2*A-2*B);
-		U = U - .00003 * Math.cos(2*B);
-
-		
-		double W;
-		W =     .10478 * Math.sin(A);
-		W = W - .04105 * Math.sin(2*B+2*D);
-		W = W - .02130 * Math.sin(A-2*C);
-		W = W - .01779 * Math.sin(2*B+D);
-		W = W + .01774 * Math.sin(D);
-		W = W + .00987 * Math.sin(2*C);
-		W = W - .00338 * Math.sin(A-2*B-2*D);
-		W = W - .00309 * Math.sin(F);
-		W = W - .00190 * Math.sin(2*B);
-		W = W - .00144 * Math.sin(A+D);
-		W = W - .00144 * Math.sin(A-2*B-D);
-		W = W - .00113 * Math.sin(A+2*B+2*D);
-		W = W - .00094 * Math.sin(A-2*C+F);
-		W = W - .00092 * Math.sin(2*A-2*C);
-		W = W + .00071 * Math.sin(2*C-F);
-		W = W + .00070 * Math.sin(2*A);
-		W = W + .00067 * Math.sin(A+2*B-2*C+2*D);
-		W = W + .00066 * Math.sin(2*B-2*C+D);
-		W = W - .00066 * Math.sin(2*C+D);
-		W = W + .00061 * Math.sin(A-F);
-		W = W - .00058 * Math.sin(C);
-		W = W - .00049 * Math.sin(A+2*B+D);
-		W = W - .00049 * Math.sin(A-D);
-		W = W - .00042 * Math.sin(A+F);
-		W = W + .00034 * Math.sin(2*B-2*C+2*D);
-		W = W - .00026 * Math.sin(2*B-2*C);
-		W = W + .00025 * Math.sin(A-2*B-2*C-2*D);
-		W = W + .00024 * Math.sin(A-2*B);
-		W = W + .00023 * Math.sin(A+2*B-2*C+D);
-		W = W + .00023 * Math.sin(A-2*C-D);
-		W = W + .00019 * Math.sin(A+2*C);
-		W = W + .00012 * Math.sin(A-2*C-F);
-		W = W + .00011 * Math.sin(A-2*C+D);
-		W = W + .00011 * Math.sin(A-2*B-2*C-D);
-		W = W - .00010 * Math.sin(2*C+F);
-		W = W + .00009 * Math.sin(A-C);
-		W = W + .00008 * Math.sin(C+F);
-		W = W - .00008 * Math.sin(2*B+2*C+2*D);
-		W = W - .00008 * Math.sin(2*D);
-		W = W - .00007 * Math.sin(2*B+2*D-F);
-		W = W + .00006 * Math.sin(2*B+2*D+F);
-		W = W - .00005 * Math.sin(A+2*B);
-		W = W + .00005 * Math.sin(3*A);
-		W = W - .00005 * Math.sin(A+16*E-18*G);
-		W = W - .00005 * Math.sin(2*A+2*B+2*D);
-		W = W + .00004 * numCenturiesSince1900 * Math.sin(2*B+2*D);
-		W = W + .00004 * Math.cos(A+16*E-18*G);
-		W = W - .00004 * Math.sin(A-2*B+2*C);
-		W = W - .00004 * Math.sin(A-4*C);
-		W = W - .00004 * Math.sin(3*A-2*C);
-		W = W - .00004 * Math.sin(2*B+2*C+D);
-		W = W - .00004 * Math.sin(2*C-D);
-		W = W - .00003 * Math.sin(2*F);
-		W = W - .00003 * Math.sin(A-2*C+2*F);
-		W = W + .00003 * Math.sin(2*B-2*C+D+F);
-		W = W - .00003 * Math.sin(2*C+D-F);
-		W = W + .00003 * Math.sin(2*A+2*B-2*C+2*D);
-		W = W + .00003 * Math.sin(2*C-2*F);
-		W = W - .00003 * Math.sin(2*A-2*C+F);
-		W = W + .00003 * Math.sin(A+2*B-2*C+2*D+F);
-		W = W - .00003 * Math.sin(2*A-4*C);
-		W = W + .00002 * Math.sin(2*B-2*C+2*D+F);
-		W = W - .00002 * Math.sin(2*A+2*B+D);
-		W = W - .00002 * Math.sin(2*A-D);
-		W = W + .00002 * numCenturiesSince1900 * Math.cos(A+16*E-18*G);
-		W = W + .00002 * Math.sin(4*C);
-		W = W - .00002 * Math.sin(2*B-C+2*D);
-		W = W - .00002 * Math.sin(A+2*B-2*C);
-		W = W - .00002 * Math.sin(2*A+D);
-		W = W - .00002 * Math.sin(2*A-2*B-D);
-		W = W + .00002 * Math.sin(A+2*C-F);
-		W = W + .00002 * Math.sin(2*A-F);
-		W = W - .00002 * Math.sin(A-4*C+F);
-		W = W + .00002 * numCenturiesSince1900 * Math.sin(A+16*E-18*G);
-		W = W - .00002 * Math.sin(A-2*B-2*D-F);
-		W = W + .00002 * Math.sin(2*A-2*B-2*D);
-		W = W - .00002 * Math.sin(A+2*C+D);
-		W = W - .00002 * Math.sin(A-2*B+2*C-D);
+		// periodic terms, see LunarSeries
+		double[] series = LunarSeries.evaluate(A, B, C, D, F, 16*E-18*G, numCenturiesSince1900, accuracy);
+		double V = series[LunarSeries.V];
+		double U = series[LunarSeries.U];
+		double W = series[LunarSeries.W];
 		
 		Position position = calculatePosition(meanLongitudeOfMoon, U, V, W);
 		double julianDate  = (daysFromEpoc + NEW_STANDARD_EPOC)-0.5;
@@ -928,7 +1223,7 @@ public class Calculator {
 			int year = (int) Math.floor((month > 2) ? (c - 4716) : (c - 4715));
 			int day = (int) Math.floor(b - d - Math.floor(30.6001 * e) + f);
 	
-			return new Date(year-ERRORCORRECTIONDATE, month-1, day+1);
+			return new Date(JulianDay.toMillis(TimeZone.getDefault(), JulianDay.epochDay(year, month, day) + 1, 0));
 }
 	
 	/**
@@ -975,7 +1270,28 @@ public class Calculator {
 	 * @return LST double value
 	 */
 	public double calculateLST(double daysFromEpoc, double timeZoneShift, double longitude) {
-		double L = longitude/360;
+		return localSiderealTime(daysFromEpoc, timeZoneShift, longitude/360);
+	}
+	
+	/**
+	 * Calculate LST of an observer
+	 * @param daysFromEpoc days From Epoc
+	 * @param timeZoneShift time Zone Shift
+	 * @param observer location of user
+	 * @return LST double value
+	 */
+	public double calculateLST(double daysFromEpoc, double timeZoneShift, ObserverContext observer) {
+		return localSiderealTime(daysFromEpoc, timeZoneShift, observer.getLongitudeFraction());
+	}
+	
+	/**
+	 * Calculate LST
+	 * @param daysFromEpoc days From Epoc
+	 * @param timeZoneShift time Zone Shift
+	 * @param L longitude of your location in turns (longitude/360)
+	 * @return LST double value
+	 */
+	private double localSiderealTime(double daysFromEpoc, double timeZoneShift, double L) {
 		double ret = daysFromEpoc/NUM_DAYS_IN_CENTURY;
 
 		double S;
@@ -997,27 +1313,8 @@ public class Calculator {
 	 * @return add +0.5 for non-truncated Julian Date
 	 */
 	public int calculateJulianDate(Calendar calendar) {
-		int day = calendar.get(Calendar.DAY_OF_MONTH);
-		int month = calendar.get(Calendar.MONTH)+1;
-		int year = calendar.get(Calendar.YEAR);
-		int julianDate = -1 * (int) ( 7 * (((month+9)/12)+year) / 4);
-		
-		int offset = 0;
-		boolean after1583 = year >= 1583;
-		if(after1583) {
-			int S = sgn(month-9);
-			int A = Math.abs(month-9);
-			
-			offset = year + S * (A/7);
-			offset = -1 * ( (offset/100) +1) * 3/4;
-		}
-		
-		
-		julianDate = julianDate + (275*month/9) + day + offset;
-		julianDate = julianDate + 1721027 + (after1583 ? 2 : 0) + 367*year;
-
-		julianDate--; //truncate
-		return julianDate;
+		return JulianDay.truncatedJulianDate(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH)+1, 
+				calendar.get(Calendar.DAY_OF_MONTH));
 	}
 	
 	/**
@@ -1258,14 +1555,20 @@ public class Calculator {
 	 * @return Double Angle of Moon to Draw
 	 */
 	public Double getAnglePhase(Date date) {
-		if (date == null) {
-			date = new Date();
-		}
-
-		// Time measured in Julian centuries from epoch J2000.0:
-		Date Tepoch = new Date(2000, 0, 1);
-		Tepoch.setTime(getTime(Tepoch.getTime()));
-		Double T = (decimalYears(date)+ERRORCORRECTIONDATE - decimalYears(Tepoch)) / 100.;
+		return anglePhase(date == null ? System.currentTimeMillis() : date.getTime());
+	}
+	
+	/**
+	 * Phase angle of an instant, see {@link #getAnglePhase(Date)}
+	 * 
+	 * @param millis instant (milliseconds since 1970-01-01T00:00Z)
+	 * @return Double Angle of Moon to Draw
+	 */
+	private Double anglePhase(long millis) {
+		// Time measured in Julian centuries from epoch J2000.0 (the epoch of the legacy Date(2000, 0, 1),
+		// midnight of year 3900 in the default time zone, plus half a day):
+		long Tepoch = getTime(JulianDay.toMillis(TimeZone.getDefault(), JulianDay.epochDay(2000 + ERRORCORRECTIONDATE, 1, 1), 0));
+		Double T = (decimalYears(millis)+ERRORCORRECTIONDATE - decimalYears(Tepoch)) / 100.;
 		Double T2 = T * T;
 		Double T3 = T2 * T;
 		Double T4 = T3 * T;
@@ -1295,7 +1598,17 @@ public class Calculator {
 	 */
 	public double decimalYears(Date date) {
 		// getTime() returns milliseconds Math.since Jan 1, 1970, so:
-		return date.getTime() / 365.242191 / (24 * 60 * 60 * 1000);
+		return decimalYears(date.getTime());
+	}
+	
+	/** 
+	 * Convert to DecimalYear
+	 * 
+	 * @param time milliseconds since Jan 1, 1970
+	 * @return decimal Years
+	 */
+	private double decimalYears(long time) {
+		return time / 365.242191 / (24 * 60 * 60 * 1000);
 	}
 	
 	/** 
@@ -1306,28 +1619,11 @@ public class Calculator {
 	 * @return long Years
 	 */
 	public Long getTime(Long time) {
-
-		// see if the day is decimal:
-		String decimal = ".5";
-		float correction = Float.valueOf(decimal).floatValue() * 24 * 60 * 60
-				* 1000;
-
-		// This is so stupid -- Date has a ctor to set itself
-		// from a string, but has no way of setting itself
-		// from a string after construction! Sigh.
-		Date stupid;
-		try {
-			stupid = new Date();
-			stupid.setTime(time);
-		} catch (java.lang.IllegalArgumentException e) {
-			stupid = new Date();
-		}
-
-		// Now add the appropriate decimal days:
-		return stupid.getTime() + (long) correction;
-
+		// Now add the appropriate decimal days (.5):
+		return time + JulianDay.MILLIS_IN_DAY / 2;
 	}
 
+
 //	/**
 //	 * Check Moon's Zodiac Sideral utiliza as constelaes como referncia
 //	 * 
@@ -1480,284 +1776,524 @@ public class Calculator {
 	}
 	
 	/**
-	 * Generates and adds the moons of the current Year
+	 * Generates and adds the moons, suns and planets of the current Year
+	 * 
+	 * <p>The days from December of the previous year to January of the next year are independent of each
+	 * other, so they are computed as fork/join tasks (see {@link #setParallelism(int)}), each one on its own
+	 * copy of the calendar. The days are then merged in calendar order into the lunar, solar and planet year,
+	 * the apogee and perigee lists and the eclipse lists. The calendar given is not modified.</p>
+	 * 
+	 * <p>The lists replace those of the previous year computed, they are not appended to them.</p>
 	 * 
 	 * @param calendar Astronomical Calendar
 	 * @param gps GpsCoordinate
-	 * @return ArrayList of lunar year 
 	 */
 	public void calculateYear(Calendar calendar, GpsCoordinate gps) {
-		double utcToLocal = 0d;
-		double timeZoneShift;
-		int julianDate = 0;//note that the julianDate is truncated
-		double daysFromEpoc = 0d;
-		double LST = 0d;
-		
-		MoonEvent moon = null;
-		SunEvent sun = null;
-		eclipseLunar = new ArrayList<MoonEvent>();
-		eclipseSolar = new ArrayList<SunEvent>();
-		planetYear = new ArrayList<ArrayList<ArrayList<Event>>>();
-		lunarYear = new ArrayList<ArrayList<MoonEvent>>();
-		solarYear = new ArrayList<ArrayList<SunEvent>>();
+		long sequence = ++yearRequested;
+		Result year = new Result();
+		calculateYear(calendar, new ObserverContext(gps), year, Product.all(), Accuracy.STANDARD);
+		setYear(year, sequence);
+	}
+	
+	/**
+	 * Keep the year data of a result as the year of the calculator, unless the year of a later request
+	 * is already kept
+	 * @param year Result with the year data
+	 * @param sequence number of the request of the year
+	 */
+	private synchronized void setYear(Result year, long sequence) {
+		if (sequence < yearLoaded) {
+			return;
+		}
+		yearLoaded = sequence;
+		lunarYear = year.getLunarYear();
+		solarYear = year.getSolarYear();
+		planetYear = year.getPlanetYear();
+		monthLunar = lunarYear.get(lunarYear.size()-1);
+		monthSolar = solarYear.get(solarYear.size()-1);
+		monthPlanet = planetYear.get(planetYear.size()-1);
+		apogeeList = year.getApogeeList();
+		perigeeList = year.getPerigeeList();
+		eclipseLunar = year.getEclipseLunar();
+		eclipseSolar = year.getEclipseSolar();
+	}
+	
+	/**
+	 * Generates the moons, suns and planets of the current Year into a result, without touching
+	 * the state of the calculator
+	 * 
+	 * @param calendar Astronomical Calendar, not modified
+	 * @param observer ObserverContext
+	 * @param year Result receiving the year data
+	 * @param products products to calculate, the year data of the others is null
+	 * @param accuracy accuracy of the positions and of the scans
+	 */
+	private void calculateYear(Calendar calendar, ObserverContext observer, Result year, Set<Product> products, 
+			Accuracy accuracy) {
+		ArrayList<MoonEvent> apogeeList = new ArrayList<MoonEvent>();
+		ArrayList<MoonEvent> perigeeList = new ArrayList<MoonEvent>();
+		ArrayList<MoonEvent> eclipseLunar = new ArrayList<MoonEvent>();
+		ArrayList<SunEvent> eclipseSolar = new ArrayList<SunEvent>();
+		ArrayList<ArrayList<ArrayList<Event>>> planetYear = new ArrayList<ArrayList<ArrayList<Event>>>();
+		ArrayList<ArrayList<MoonEvent>> lunarYear = new ArrayList<ArrayList<MoonEvent>>();
+		ArrayList<ArrayList<SunEvent>> solarYear = new ArrayList<ArrayList<SunEvent>>();
 		
 		int ano = calendar.get(Calendar.YEAR);
-		int mes = calendar.get(Calendar.MONTH);
-		int dia = calendar.get(Calendar.DAY_OF_MONTH);
-
-		Position moonToday = null;
-		Position moonTomorrow;
+		ApsisTable perigeeApogee = products.contains(Product.APSIDES) ? apsisCache.get(ano) : null;
+		
+		// Month 0 is December of the previous year and month 13 is January of the next year
+		ArrayList<YearDay> grid = new ArrayList<YearDay>(14 * 31);
 		for (int iMonth = 0; iMonth < 14; iMonth++) {
-				monthLunar = new ArrayList<MoonEvent>();
-				monthSolar = new ArrayList<SunEvent>();
-				if (iMonth >= 1 && iMonth <= 12){
-					monthPlanet = new ArrayList<ArrayList<Event>>(9);
-					for (int iDay = 0; iDay < 9; iDay++) {
-						monthPlanet.add(new ArrayList<Event>());
-					};
+			for (int iDay = 1; iDay <= 31; iDay++) {
+				if (iMonth == 0 && isDayOfMonth(iDay, 12, ano-1)) {
+					grid.add(new YearDay(iMonth, ano-1, 11, iDay));
 				}
-				for (int iDay = 1; iDay <= 31; iDay++) {
-					if (iMonth == 0){
-								if (isDayOfMonth(iDay, 12,ano-1)) {
-										calendar.set(Calendar.YEAR, ano-1);
-										calendar.set(Calendar.MONTH, 11);
-										calendar.set(Calendar.DAY_OF_MONTH, iDay);
-										
-										utcToLocal = calculateUtcToDSTLocal(calendar);
-										timeZoneShift = -1  * utcToLocal/HOURS_IN_DAY;
-										julianDate = calculateJulianDate(calendar); //note that the julianDate is truncated
-										daysFromEpoc = (julianDate - NEW_STANDARD_EPOC) + 0.5;
-										LST     = calculateLST(daysFromEpoc  , timeZoneShift, gps.getLongitude());
-										daysFromEpoc = daysFromEpoc + timeZoneShift;
-										//calculate today sun
-										Position sunToday    = calculateSunPosition(daysFromEpoc);	
-										Position sunTomorrow    = calculateSunPosition(daysFromEpoc+1);
-										sunTomorrow = ensureSecondAscentionGreater(sunToday, sunTomorrow);
-										
-										//calculate today moon
-										moonToday    = calculateMoonPosition(daysFromEpoc);
-										moonTomorrow = calculateMoonPosition(daysFromEpoc+1);
-														
-										moonTomorrow = ensureSecondAscentionGreater(moonToday, moonTomorrow);		
-										moon = new MoonEvent(calculate(MOONRISE_MOONSET_OFFSET, gps, LST, moonToday, moonTomorrow));
-										moon.setAgeInDays(calculateMoonsAge(julianDate+1));
-										moon.setIlluminationPercent(calculateMoonIlluminationPercent(moon.getAgeInDays()+1));
-										moon.setZodiac(zodiac(moonToday.getLongitudeEcliptic()));
-										moon.setPhase(phase(moon.getAgeInDays()));
-										moon.setDate(calendar.getTime());
-										moon.setPerigeeOrApogee(setApogeuAndPerigeu(moon));
-										moon.setJulianDate(julianDate);
-										moon.setAnglePhase(getAnglePhase(calendar.getTime()));
-										monthLunar.add(moon);
-								}
-					}
-					if (iMonth >= 1 && iMonth <= 12){
-								if (isDayOfMonth(iDay, iMonth,ano)) {
-									calendar.set(Calendar.YEAR, ano);
-									calendar.set(Calendar.MONTH, iMonth-1);
-									calendar.set(Calendar.DAY_OF_MONTH, iDay);
-									
-									utcToLocal = calculateUtcToDSTLocal(calendar);
-									timeZoneShift = -1  * utcToLocal/HOURS_IN_DAY;
-									julianDate = calculateJulianDate(calendar); //note that the julianDate is truncated
-									daysFromEpoc = (julianDate - NEW_STANDARD_EPOC) + 0.5;
-									LST     = calculateLST(daysFromEpoc  , timeZoneShift, gps.getLongitude());
-									daysFromEpoc = daysFromEpoc + timeZoneShift;
-									
-									//calculate sun
-									Position sunToday    = calculateSunPosition(daysFromEpoc);	
-									Position sunTomorrow    = calculateSunPosition(daysFromEpoc+1);
-									sunTomorrow = ensureSecondAscentionGreater(sunToday, sunTomorrow);
-									sun = new SunEvent(calculate(SUNRISE_SUNET_OFFSET, gps, LST, sunToday, sunTomorrow));		
-									sun.setName("Sun");
-									sun.setZodiac(zodiac(sunToday.getLongitudeEcliptic()));
-									sun.setPosition(sunToday);
-									sun.setDate(calendar.getTime());
-									sun.setJulianDate(julianDate);
-									
-									//calculate moon
-									moonToday    = calculateMoonPosition(daysFromEpoc);
-									moonTomorrow = calculateMoonPosition(daysFromEpoc+1);
-													
-									moonTomorrow = ensureSecondAscentionGreater(moonToday, moonTomorrow);		
-									moon = new MoonEvent(calculate(MOONRISE_MOONSET_OFFSET, gps, LST, moonToday, moonTomorrow));
-									moon.setName("Moon");
-									moon.setAgeInDays(calculateMoonsAge(julianDate+1));
-									moon.setIlluminationPercent(calculateMoonIlluminationPercent(moon.getAgeInDays()+1));
-									moon.setZodiac(zodiac(moonToday.getLongitudeEcliptic()));
-									moon.setPhase(phase(moon.getAgeInDays()));
-									moon.setDate(calendar.getTime());
-									moon.setJulianDate(julianDate);
-									moon.setAnglePhase(getAnglePhase(calendar.getTime()));
-									moon.setPerigeeOrApogee(setApogeuAndPerigeu(moon));
-									
-									isEclipseLunar(moon,moonTomorrow,sunToday,sunTomorrow);
-									isEclipseSolar(sun, moon,moonTomorrow,sunToday,sunTomorrow);
-									
-									monthSolar.add(sun);
-									monthLunar.add(moon);
-									
-									//calculate planets
-									OrbitCalculator planetCalc = new OrbitCalculator();
-									ArrayList<Event> planetList = planetCalc.computeElementsPosition(daysFromEpoc);
-									
-									
-									for (int i=0; i<planetList.size(); i++){
-										Position planetToday    = planetList.get(i).getPosition();
-										Position planetTomorrow = planetList.get(i).getPositionTomorrow();
-										planetList.get(i).setPosition(planetToday);
-										
-										Event aux = calculate(SUNRISE_SUNET_OFFSET, this.gps, LST, planetToday, planetTomorrow);
-										//Teste NAUTICAL_TWILIGHT_OFFSET
-										aux.setDate(calendar.getTime());
-										aux.setJulianDate(julianDate);
-										aux.setName(planetList.get(i).getName());
-										aux.setPosition(planetToday);
-										
-										aux.setZodiac(zodiac(planetToday.getLongitudeEcliptic()));
-										  if (aux.getName().equals("Mercury")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-										  else if (aux.getName().equals("Venus")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-										  else if (aux.getName().equals("Mars")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-										  else if (aux.getName().equals("Earth")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-										  else if (aux.getName().equals("Jupiter")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-										  else if (aux.getName().equals("Saturn")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-										  else if (aux.getName().equals("Uranus")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-										  else if (aux.getName().equals("Neptune")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-										  else if (aux.getName().equals("Pluto")){
-											  	monthPlanet.get(i).add(aux);
-										  }
-									}
-								}
+				if (iMonth >= 1 && iMonth <= 12 && isDayOfMonth(iDay, iMonth, ano)) {
+					grid.add(new YearDay(iMonth, ano, iMonth-1, iDay));
+				}
+				if (iMonth == 13 && isDayOfMonth(iDay, 1, ano+1)) {
+					grid.add(new YearDay(iMonth, ano+1, 0, iDay));
+				}
+			}
+		}
+		YearDay[] days = grid.toArray(new YearDay[grid.size()]);
+		
+		if (parallelism <= 1) {
+			calculateYearDays(calendar, observer, products, accuracy, perigeeApogee, days, 0, days.length);
+		} else {
+			yearPool(parallelism).invoke(new YearTask(calendar, observer, products, accuracy, perigeeApogee, days, 0, days.length));
+		}
+		
+		int index = 0;
+		for (int iMonth = 0; iMonth < 14; iMonth++) {
+			ArrayList<MoonEvent> monthLunar = new ArrayList<MoonEvent>();
+			ArrayList<SunEvent> monthSolar = new ArrayList<SunEvent>();
+			ArrayList<ArrayList<Event>> monthPlanet = null;
+			if (iMonth >= 1 && iMonth <= 12){
+				monthPlanet = new ArrayList<ArrayList<Event>>(9);
+				for (int iDay = 0; iDay < 9; iDay++) {
+					monthPlanet.add(new ArrayList<Event>());
+				}
+			}
+			for (; index < days.length && days[index].iMonth == iMonth; index++) {
+				YearDay day = days[index];
+				if (day.moon != null && "Apogee".equals(day.moon.getPerigeeOrApogee())) {
+					apogeeList.add(day.moon);
+				} else if (day.moon != null && "Perigee".equals(day.moon.getPerigeeOrApogee())) {
+					perigeeList.add(day.moon);
+				}
+				if (day.eclipseLunar) {
+					eclipseLunar.add(day.moon);
+				}
+				if (day.eclipseSolar) {
+					eclipseSolar.add(day.sun);
+				}
+				if (day.sun != null) {
+					monthSolar.add(day.sun);
+				}
+				if (day.moon != null) {
+					monthLunar.add(day.moon);
+				}
+				if (day.planets != null) {
+					for (int i = 0; i < day.planets.size(); i++) {
+						monthPlanet.get(i).add(day.planets.get(i));
 					}
-					if (iMonth == 13){
-								if (isDayOfMonth(iDay, 1,ano+1)) {
-									calendar.set(Calendar.YEAR, ano+1);
-									calendar.set(Calendar.MONTH, 0);
-									calendar.set(Calendar.DAY_OF_MONTH, iDay);
-									
-									utcToLocal = calculateUtcToDSTLocal(calendar);
-									timeZoneShift = -1  * utcToLocal/HOURS_IN_DAY;
-									julianDate = calculateJulianDate(calendar); //note that the julianDate is truncated
-									daysFromEpoc = (julianDate - NEW_STANDARD_EPOC) + 0.5;
-									LST     = calculateLST(daysFromEpoc  , timeZoneShift, gps.getLongitude());
-									daysFromEpoc = daysFromEpoc + timeZoneShift;
-									
-									//calculate today sun
-									Position sunToday    = calculateSunPosition(daysFromEpoc);	
-									Position sunTomorrow    = calculateSunPosition(daysFromEpoc+1);	
-									
-									sunTomorrow = ensureSecondAscentionGreater(sunToday, sunTomorrow);
-									
-									//calculate today moon
-									moonToday    = calculateMoonPosition(daysFromEpoc);
-									moonTomorrow = calculateMoonPosition(daysFromEpoc+1);
-													
-									moonTomorrow = ensureSecondAscentionGreater(moonToday, moonTomorrow);		
-									moon = new MoonEvent(calculate(MOONRISE_MOONSET_OFFSET, gps, LST, moonToday, moonTomorrow));
-									moon.setAgeInDays(calculateMoonsAge(julianDate+1));
-									moon.setIlluminationPercent(calculateMoonIlluminationPercent(moon.getAgeInDays()+1));
-									moon.setZodiac(zodiac(moonToday.getLongitudeEcliptic()));
-									moon.setPhase(phase(moon.getAgeInDays()));
-									moon.setDate(calendar.getTime());
-									moon.setPerigeeOrApogee(setApogeuAndPerigeu(moon));
-									moon.setJulianDate(julianDate);
-									moon.setAnglePhase(getAnglePhase(calendar.getTime()));
-									monthLunar.add(moon);
-								}	
-					}	
-//				System.out.println("- Julian date: "+julianDate+ " "+calendar.getTime() + " " + moon.position.date);
 				}
-				lunarYear.add(monthLunar);
-				if (iMonth >= 1 && iMonth <= 12){
-					solarYear.add(monthSolar);
-					planetYear.add(monthPlanet);
-				}	
+			}
+			lunarYear.add(monthLunar);
+			if (iMonth >= 1 && iMonth <= 12){
+				solarYear.add(monthSolar);
+				planetYear.add(monthPlanet);
+			}
 		}
-		// Update to current date time
-		calendar.set(Calendar.YEAR, ano);
-		calendar.set(Calendar.MONTH, mes);
-		calendar.set(Calendar.DAY_OF_MONTH, dia);
-	}	
+		year.setLunarYear(products.contains(Product.MOON) ? lunarYear : null);
+		year.setSolarYear(products.contains(Product.SUN_RISE_SET) ? solarYear : null);
+		year.setPlanetYear(products.contains(Product.PLANETS) ? planetYear : null);
+		year.setApogeeList(products.contains(Product.APSIDES) ? apogeeList : null);
+		year.setPerigeeList(products.contains(Product.APSIDES) ? perigeeList : null);
+		year.setEclipseLunar(products.contains(Product.ECLIPSES) ? eclipseLunar : null);
+		year.setEclipseSolar(products.contains(Product.ECLIPSES) ? eclipseSolar : null);
+	}
 	
 	/**
+	 * Events of each day of a range, computed lazily as the stream is consumed. Thread-safe as 
+	 * {@link #calculate(CalculationContext)}.
 	 * 
-	 * @param calendar current calendar date
-	 * @return String value "Apogee" or "Perigee"
+	 * <p>Only the days being computed are held in memory, so the range can span any number of years. The stream
+	 * is ordered and sized and splits into sub-ranges of days for {@link Stream#parallel()}; each sub-range moves
+	 * its own window of positions (see {@link DayWindow}) from day to day. The days are those of the time zone of
+	 * the context at its time of day, the apsides of a day are those of its year (see {@link ApsisCache}).</p>
+	 * 
+	 * @param context location, time zone, time of day, products and accuracy of the days
+	 * @param from first day (inclusive)
+	 * @param to last day (exclusive)
+	 * @return stream of the events of each day, in the order of the days
 	 */
-	public String setApogeuAndPerigeu(MoonEvent moon) {
-		// System.out.println("APOGEU "+calendar.getTime());
-		
-		for (int index = 0; index < perigeeApogeeCalculator.getApogeeList().size(); index++) {
-			if (perigeeApogeeCalculator.getApogeeList().get(index).getYear() == moon.getDate().getYear()
-					&& perigeeApogeeCalculator.getApogeeList().get(index).getMonth() == moon.getDate().getMonth()
-					&& perigeeApogeeCalculator.getApogeeList().get(index).getDate() == moon.getDate().getDate()) {
-				moon.setDate(perigeeApogeeCalculator.getApogeeList().get(index));
-				getApogeeList().add(moon);
-				return "Apogee";
+	public Stream<DayEvents> days(CalculationContext context, LocalDate from, LocalDate to) {
+		if (to.isBefore(from)) {
+			throw new IllegalArgumentException("Invalid range from " + from + " to " + to);
+		}
+		return StreamSupport.stream(new DaySpliterator(context, from.toEpochDay(), to.toEpochDay()), false);
+	}
+	
+	/**
+	 * Days of a range, computed one at a time on a copy of the calendar of the context
+	 */
+	private class DaySpliterator implements Spliterator<DayEvents> {
+		private final CalculationContext context;
+		private long from;
+		private final long to;
+		/**
+		 * Clock and window of the days, created on the first day computed
+		 */
+		private DayClock clock;
+		private DayWindow window;
+		
+		DaySpliterator(CalculationContext context, long from, long to) {
+			this.context = context;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super DayEvents> action) {
+			if (from >= to) {
+				return false;
 			}
-			// System.out.println(getApogeuList().get(index).getData());
+			if (clock == null) {
+				clock = new DayClock(context.getTimeZone(), context.getTimeInMillis());
+				window = new DayWindow(Calculator.this, context.getAccuracy());
+			}
+			LocalDate date = LocalDate.ofEpochDay(from++);
+			EnumSet<Product> products = context.getProducts();
+			ApsisTable perigeeApogee = products.contains(Product.APSIDES) ? apsisCache.get(date.getYear()) : null;
+			// a month of the current year, so the sun, the planets and the eclipses are computed
+			YearDay day = new YearDay(date.getMonthValue(), date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth());
+			calculateYearDay(clock, context.getObserver(), products, perigeeApogee, window, day);
+			action.accept(new DayEvents(date, day.sun, day.moon, day.planets, day.eclipseLunar, day.eclipseSolar));
+			return true;
 		}
-
-		// System.out.println("PERIGEU "+calendar.getTime());
-		for (int index = 0; index < perigeeApogeeCalculator.getPerigeeList().size(); index++) {
-			if (perigeeApogeeCalculator.getPerigeeList().get(index).getYear() == moon.getDate().getYear()
-					&& perigeeApogeeCalculator.getPerigeeList().get(index).getMonth() == moon.getDate().getMonth()
-					&& perigeeApogeeCalculator.getPerigeeList().get(index).getDate() == moon.getDate().getDate()) {
-				moon.setDate(perigeeApogeeCalculator.getPerigeeList().get(index));
-				getPerigeeList().add(moon);
-				return "Perigee";
+		
+		@Override
+		public Spliterator<DayEvents> trySplit() {
+			if (to - from <= YEAR_TASK_DAYS) {
+				return null;
 			}
-			// System.out.println(getPerigeuList().get(index).getData());
+			long middle = from + (to - from) / 2;
+			DaySpliterator prefix = new DaySpliterator(context, from, middle);
+			from = middle;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return to - from;
+		}
+		
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
 		}
-		return "";
 	}
 	
 	/**
+	 * Calculate a range of days of the year on a single clock at the time of day of the calendar
 	 * 
-	 * @param calendar current calendar date
-	 * @return String value "Apogee" or "Perigee"
+	 * @param calendar Astronomical Calendar, not modified
+	 * @param observer ObserverContext
+	 * @param products products to calculate
+	 * @param accuracy accuracy of the positions and of the scans
+	 * @param perigeeApogee dates of Perigee and Apogee of the year, null without apsides
+	 * @param days days of the year
+	 * @param from first day (inclusive)
+	 * @param to last day (exclusive)
 	 */
-	public String isApogeuOrPerigeu(MoonEvent moon) {
-		// System.out.println("APOGEU "+calendar.getTime());
+	private void calculateYearDays(Calendar calendar, ObserverContext observer, Set<Product> products, Accuracy accuracy, 
+			ApsisTable perigeeApogee, YearDay[] days, int from, int to) {
+		DayClock clock = new DayClock(calendar.getTimeZone(), calendar.getTimeInMillis());
+		DayWindow window = new DayWindow(this, accuracy);
+		for (int i = from; i < to; i++) {
+			calculateYearDay(clock, observer, products, perigeeApogee, window, days[i]);
+		}
+	}
+	
+	/**
+	 * Calculate the moon of a day of the year and, for the days of the current year, the sun, the planets
+	 * and the eclipses, of the products asked for. Nothing shared is modified, the results are kept in the day.
+	 * 
+	 * @param clock clock owned by the caller, set to the day
+	 * @param observer ObserverContext
+	 * @param products products to calculate
+	 * @param perigeeApogee dates of Perigee and Apogee of the year, null without apsides
+	 * @param window positions of the previous day of the caller, moved to the day
+	 * @param day YearDay
+	 */
+	private void calculateYearDay(DayClock clock, ObserverContext observer, Set<Product> products, 
+			ApsisTable perigeeApogee, DayWindow window, YearDay day) {
+		boolean currentYear = day.iMonth >= 1 && day.iMonth <= 12;
+		clock.set(day.year, day.month, day.day);
+		
+		double utcToLocal = calculateUtcToDSTLocal(clock.getTimeZone(), clock.getTimeInMillis());
+		double timeZoneShift = -1  * utcToLocal/HOURS_IN_DAY;
+		int julianDate = JulianDay.truncatedJulianDate(day.year, day.month + 1, day.day); //note that the julianDate is truncated
+		double daysFromEpoc = (julianDate - NEW_STANDARD_EPOC) + 0.5;
+		double LST     = calculateLST(daysFromEpoc  , timeZoneShift, observer);
+		daysFromEpoc = daysFromEpoc + timeZoneShift;
+		
+		Position sunToday = null;
+		Position sunTomorrow = null;
+		if (currentYear && products.contains(Product.SUN_RISE_SET)) {
+			//calculate sun
+			sunToday    = window.today(Body.SUN, daysFromEpoc);	
+			sunTomorrow    = window.tomorrow(Body.SUN, daysFromEpoc);
+			sunTomorrow = ensureSecondAscentionGreater(sunToday, sunTomorrow);
+			day.sun = new SunEvent(calculate(SUNRISE_SUNET_OFFSET, observer, LST, daysFromEpoc, sunToday, sunTomorrow, window.getAccuracy()));		
+			day.sun.setName("Sun");
+			day.sun.setZodiac(zodiac(sunToday.getLongitudeEcliptic()));
+			day.sun.setPosition(sunToday);
+			day.sun.setDate(clock.getTime());
+			day.sun.setJulianDate(julianDate);
+		}
 		
-		for (int index = 0; index < perigeeApogeeCalculator.getApogeeList().size(); index++) {
-			if (perigeeApogeeCalculator.getApogeeList().get(index).getYear() == moon.getDate().getYear()
-					&& perigeeApogeeCalculator.getApogeeList().get(index).getMonth() == moon.getDate().getMonth()
-					&& perigeeApogeeCalculator.getApogeeList().get(index).getDate() == moon.getDate().getDate()) {
-				return "Apogee";
+		if (products.contains(Product.MOON)) {
+			//calculate moon
+			Position moonToday    = window.today(Body.MOON, daysFromEpoc);
+			Position moonTomorrow = window.tomorrow(Body.MOON, daysFromEpoc);
+			moonTomorrow = ensureSecondAscentionGreater(moonToday, moonTomorrow);		
+			MoonEvent moon = new MoonEvent(calculate(MOONRISE_MOONSET_OFFSET, observer, LST, daysFromEpoc, moonToday, moonTomorrow, window.getAccuracy()));
+			moon.setName("Moon");
+			moon.setAgeInDays(calculateMoonsAge(julianDate+1));
+			moon.setIlluminationPercent(calculateMoonIlluminationPercent(moon.getAgeInDays()+1));
+			moon.setZodiac(zodiac(moonToday.getLongitudeEcliptic()));
+			moon.setPhase(phase(moon.getAgeInDays()));
+			moon.setDate(clock.getTime());
+			moon.setJulianDate(julianDate);
+			moon.setAnglePhase(anglePhase(clock.getTimeInMillis()));
+			if (perigeeApogee != null) {
+				moon.setPerigeeOrApogee(findApogeuOrPerigeu(moon, perigeeApogee, true));
+			}
+			day.moon = moon;
+			
+			if (currentYear && products.contains(Product.ECLIPSES)) {
+				day.eclipseLunar = testEclipseLunar(moon, moonTomorrow, sunToday, sunTomorrow);
+				day.eclipseSolar = testEclipseSolar(day.sun, moon, moonTomorrow, sunToday, sunTomorrow);
 			}
-			// System.out.println(getApogeuList().get(index).getData());
 		}
-
-		// System.out.println("PERIGEU "+calendar.getTime());
-		for (int index = 0; index < perigeeApogeeCalculator.getPerigeeList().size(); index++) {
-			if (perigeeApogeeCalculator.getPerigeeList().get(index).getYear() == moon.getDate().getYear()
-					&& perigeeApogeeCalculator.getPerigeeList().get(index).getMonth() == moon.getDate().getMonth()
-					&& perigeeApogeeCalculator.getPerigeeList().get(index).getDate() == moon.getDate().getDate()) {
-				return "Perigee";
+		
+		if (currentYear && products.contains(Product.PLANETS)) {
+			//calculate planets
+			day.planets = new ArrayList<Event>(Body.PLANETS.length);
+			window.movePlanets(daysFromEpoc);
+			for (Body planet : Body.PLANETS){
+				Position planetToday    = window.today(planet, daysFromEpoc);
+				Position planetTomorrow = window.tomorrow(planet, daysFromEpoc);
+				
+				Event aux = calculate(SUNRISE_SUNET_OFFSET, observer, LST, daysFromEpoc, planetToday, planetTomorrow, window.getAccuracy());
+				aux.setDate(clock.getTime());
+				aux.setJulianDate(julianDate);
+				aux.setName(planet.getDisplayName());
+				aux.setPosition(planetToday);
+				aux.setZodiac(zodiac(planetToday.getLongitudeEcliptic()));
+				day.planets.add(aux);
 			}
-			// System.out.println(getPerigeuList().get(index).getData());
 		}
-		return "";
 	}
 	
+	/**
+	 * Orbits of the planets (stateless for single positions), only created when a planet is calculated
+	 */
+	private static class PlanetOrbits {
+		static final OrbitCalculator ORBIT_CALCULATOR = new OrbitCalculator();
+	}
+	
+	/**
+	 * Fork/join task over a range of days of the year
+	 */
+	private class YearTask extends RecursiveAction {
+		private static final long serialVersionUID = -2811372553117464361L;
+		private final Calendar calendar;
+		private final ObserverContext observer;
+		private final Set<Product> products;
+		private final Accuracy accuracy;
+		private final ApsisTable perigeeApogee;
+		private final YearDay[] days;
+		private final int from, to;
+		
+		YearTask(Calendar calendar, ObserverContext observer, Set<Product> products, Accuracy accuracy, 
+				ApsisTable perigeeApogee, YearDay[] days, int from, int to) {
+			this.calendar = calendar;
+			this.observer = observer;
+			this.products = products;
+			this.accuracy = accuracy;
+			this.perigeeApogee = perigeeApogee;
+			this.days = days;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= YEAR_TASK_DAYS) {
+				calculateYearDays(calendar, observer, products, accuracy, perigeeApogee, days, from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new YearTask(calendar, observer, products, accuracy, perigeeApogee, days, from, middle),
+						  new YearTask(calendar, observer, products, accuracy, perigeeApogee, days, middle, to));
+			}
+		}
+	}
+	
+	/**
+	 * Instants of consecutive days at a time of day in a time zone, as a calendar that is set to each day 
+	 * (a time skipped by a change of daylight saving time moves the time of day of the next days)
+	 */
+	private static final class DayClock {
+		private final TimeZone zone;
+		private long millisOfDay;
+		private long millis;
+		
+		DayClock(TimeZone zone, long millis) {
+			this.zone = zone;
+			this.millis = millis;
+			this.millisOfDay = JulianDay.millisOfDay(zone, millis);
+		}
+		
+		/**
+		 * Move to a day
+		 * @param year year
+		 * @param month month (0 to 11, as the calendar)
+		 * @param day day of month
+		 */
+		void set(int year, int month, int day) {
+			millis = JulianDay.toMillis(zone, JulianDay.epochDay(year, month + 1, day), millisOfDay);
+			millisOfDay = JulianDay.millisOfDay(zone, millis);
+		}
+		
+		TimeZone getTimeZone() {
+			return zone;
+		}
+		
+		long getTimeInMillis() {
+			return millis;
+		}
+		
+		/**
+		 * @return new Date of the instant of the day
+		 */
+		Date getTime() {
+			return new Date(millis);
+		}
+	}
+	
+	/**
+	 * A day of the year: its position in the grid of months and the events computed for it
+	 */
+	private static class YearDay {
+		final int iMonth, year, month, day;
+		MoonEvent moon;
+		SunEvent sun;
+		ArrayList<Event> planets;
+		boolean eclipseLunar, eclipseSolar;
+		
+		YearDay(int iMonth, int year, int month, int day) {
+			this.iMonth = iMonth;
+			this.year = year;
+			this.month = month;
+			this.day = day;
+		}
+	}
+	
+	/**
+	 * Pool for a parallelism level, the common pool when it has that parallelism
+	 * @param parallelism parallelism level
+	 * @return ForkJoinPool
+	 */
+	private static ForkJoinPool yearPool(int parallelism) {
+		if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+			return ForkJoinPool.commonPool();
+		}
+		return YEAR_POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+	}
+	
+	/**
+	 * Dates of Perigee and Apogee for the public apsis checks, those of the year of the date of the moon
+	 * (in the default time zone, as the days of the apsides)
+	 * @param moon MoonEvent
+	 * @return ApsisTable
+	 */
+	private ApsisTable apsides(MoonEvent moon) {
+		return apsisCache.get(LocalDate.ofEpochDay(ApsisTable.epochDay(moon.getDate())).getYear());
+	}
+	
+	/**
+	 * 
+	 * @param moon MoonEvent of the day
+	 * @return String value "Apogee" or "Perigee"
+	 */
+	public String setApogeuAndPerigeu(MoonEvent moon) {
+		String perigeeOrApogee = findApogeuOrPerigeu(moon, apsides(moon), true);
+		if ("Apogee".equals(perigeeOrApogee)) {
+			getApogeeList().add(moon);
+		} else if ("Perigee".equals(perigeeOrApogee)) {
+			getPerigeeList().add(moon);
+		}
+		return perigeeOrApogee;
+	}
+	
+	/**
+	 * 
+	 * @param moon MoonEvent of the day
+	 * @return String value "Apogee" or "Perigee"
+	 */
+	public String isApogeuOrPerigeu(MoonEvent moon) {
+		return findApogeuOrPerigeu(moon, apsides(moon), false);
+	}
+	
+	/**
+	 * Check for an apogee or perigee on the day of the moon, setting its instant and distance on the moon
+	 * @param moon MoonEvent of the day
+	 * @param apsides dates of Perigee and Apogee
+	 * @param setDate true to set the date of the moon to the time of the apogee or perigee
+	 * @return String value "Apogee" or "Perigee"
+	 */
+	private String findApogeuOrPerigeu(MoonEvent moon, ApsisTable apsides, boolean setDate) {
+		int index = apsides.indexOf(ApsisTable.epochDay(moon.getDate()));
+		if (index < 0) {
+			return "";
+		}
+		if (setDate) {
+			// a copy, the date of the moon can still be changed by the eclipse tests
+			moon.setDate(new Date(apsides.getDate(index).getTime()));
+		}
+		moon.setApsisJulianDate(apsides.getJulianDate(index));
+		moon.setApsisDistance(apsides.getDistance(index));
+		return apsides.isApogee(index) ? "Apogee" : "Perigee";
+	}
+	
+	/**
+	 * Check for a solar eclipse on the day, adding the sun to the solar eclipse list
+	 * @param sun SunEvent of the day
+	 * @param moonToday MoonEvent of the day
+	 * @param moonTomorrow Position of the moon on the next day
+	 * @param sunToday Position of the sun
+	 * @param sunTomorrow Position of the sun on the next day
+	 */
 	public void isEclipseSolar(SunEvent sun, MoonEvent moonToday, Position moonTomorrow, Position sunToday, Position sunTomorrow) {
+		if (testEclipseSolar(sun, moonToday, moonTomorrow, sunToday, sunTomorrow)) {
+			getEclipseSolar().add(sun);
+		}
+	}
+	
+	/**
+	 * Check for a solar eclipse on the day, setting its begin and end on the sun
+	 * @param sun SunEvent of the day
+	 * @param moonToday MoonEvent of the day
+	 * @param moonTomorrow Position of the moon on the next day
+	 * @param sunToday Position of the sun
+	 * @param sunTomorrow Position of the sun on the next day
+	 * @return true if there is a solar eclipse
+	 */
+	private boolean testEclipseSolar(SunEvent sun, MoonEvent moonToday, Position moonTomorrow, Position sunToday, Position sunTomorrow) {
 
 		Date dateBegin = null;
 		Date dateEnd = null;
@@ -1785,7 +2321,27 @@ public class Calculator {
 		if (changeInLongitudeSun > 360){
 			changeInLongitudeSun = changeInLongitudeSun - 360;
 		}
-		for(int hourOfDay=0; hourOfDay<HOURS_IN_DAY * MINUTE_IN_HOURS; hourOfDay++) {
+		
+		// the moon near the node and the sun, and the minutes of the day when the differences of declination 
+		// and longitude (linear over the day) are within the limits, only those minutes are tested
+		int firstMinute = 0;
+		int lastMinute = MINUTES_IN_DAY - 1;
+		if (eclipseWindows) {
+			if (!(moonToday.getPosition().getLatitudeEcliptic() > -2.0)) {
+				return false;
+			}
+			double[] window = {0, 1};
+			intersectWindow(window, moonToday.getPosition().getDeclination() - sunToday.getDeclination(), 
+					changeInDeclinationMoon - changeInDeclinationSun, -0.0265, 0.0265);
+			intersectWindow(window, moonToday.getPosition().getLongitudeEcliptic() - sunToday.getLongitudeEcliptic(), 
+					changeInLongitudeMoon - changeInLongitudeSun, -2, 0.31);
+			if (!(window[0] <= window[1])) {
+				return false;
+			}
+			firstMinute = firstMinute(window[0]);
+			lastMinute = lastMinute(window[1]);
+		}
+		for(int hourOfDay=firstMinute; hourOfDay<=lastMinute; hourOfDay++) {
 			
 			double fractionOfDay = (hourOfDay+1) / ((double)HOURS_IN_DAY * MINUTE_IN_HOURS);
 			
@@ -1827,11 +2383,32 @@ public class Calculator {
 			dateEnd.setHours((int) hour);
 			dateEnd.setMinutes((int) minute);
 			sun.setDateEnd(dateEnd);
-			getEclipseSolar().add(sun);
 		}
+		return solar;
 	}
 	
+	/**
+	 * Check for a lunar eclipse on the day, adding the moon to the lunar eclipse list
+	 * @param moonToday MoonEvent of the day
+	 * @param moonTomorrow Position of the moon on the next day
+	 * @param sunToday Position of the sun
+	 * @param sunTomorrow Position of the sun on the next day
+	 */
 	public void isEclipseLunar(MoonEvent moonToday, Position moonTomorrow, Position sunToday, Position sunTomorrow) {
+		if (testEclipseLunar(moonToday, moonTomorrow, sunToday, sunTomorrow)) {
+			getEclipseLunar().add(moonToday);
+		}
+	}
+	
+	/**
+	 * Check for a lunar eclipse on the day, setting its begin and end on the moon
+	 * @param moonToday MoonEvent of the day
+	 * @param moonTomorrow Position of the moon on the next day
+	 * @param sunToday Position of the sun
+	 * @param sunTomorrow Position of the sun on the next day
+	 * @return true if there is a lunar eclipse
+	 */
+	private boolean testEclipseLunar(MoonEvent moonToday, Position moonTomorrow, Position sunToday, Position sunTomorrow) {
 
 		Date dateBegin = null;
 		Date dateEnd = null;
@@ -1859,7 +2436,39 @@ public class Calculator {
 		if (changeInLongitudeSun > 360){
 			changeInLongitudeSun = changeInLongitudeSun - 360;
 		}
-		for(int hourOfDay=0; hourOfDay<HOURS_IN_DAY * MINUTE_IN_HOURS; hourOfDay++) {
+		
+		// the moon near the node and opposite to the sun, and the minutes of the day when the difference of
+		// longitude (linear over the day, with or without the turn of the moon) is within the limits, only those 
+		// minutes are tested
+		int firstMinute = 0;
+		int lastMinute = MINUTES_IN_DAY - 1;
+		if (eclipseWindows) {
+			if (!(moonToday.getPosition().getLatitudeEcliptic() > -3.0)) {
+				return false;
+			}
+			double oppositeSun = sunToday.getLongitudeEcliptic() + 180;
+			if (oppositeSun > 360){
+				oppositeSun = oppositeSun - 360;
+			}
+			double[] window = {0, 1};
+			double[] turnWindow = {0, 1};
+			intersectWindow(window, moonToday.getPosition().getLongitudeEcliptic() - oppositeSun, 
+					changeInLongitudeMoon - changeInLongitudeSun, -1.2, 1.2);
+			intersectWindow(turnWindow, moonToday.getPosition().getLongitudeEcliptic() - 360 - oppositeSun, 
+					changeInLongitudeMoon - changeInLongitudeSun, -1.2, 1.2);
+			if (!(window[0] <= window[1])) {
+				window = turnWindow;
+			} else if (turnWindow[0] <= turnWindow[1]) {
+				window[0] = Math.min(window[0], turnWindow[0]);
+				window[1] = Math.max(window[1], turnWindow[1]);
+			}
+			if (!(window[0] <= window[1])) {
+				return false;
+			}
+			firstMinute = firstMinute(window[0]);
+			lastMinute = lastMinute(window[1]);
+		}
+		for(int hourOfDay=firstMinute; hourOfDay<=lastMinute; hourOfDay++) {
 			
 			double fractionOfDay = (hourOfDay+1) / ((double)HOURS_IN_DAY * MINUTE_IN_HOURS);
 			
@@ -1908,8 +2517,49 @@ public class Calculator {
 			dateEnd.setHours((int) hour);
 			dateEnd.setMinutes((int) minute);
 			moonToday.setDateEnd(dateEnd);
-			getEclipseLunar().add(moonToday);
 		}
+		return lunar;
+	}
+	
+	/**
+	 * Intersect a window of fractions of the day with the fractions where a linear quantity is within limits
+	 * @param window {from, to} fractions of the day, from &gt; to (or NaN) when empty
+	 * @param start quantity at the start of the day
+	 * @param change change of the quantity over the day
+	 * @param min lower limit
+	 * @param max upper limit
+	 */
+	private static void intersectWindow(double[] window, double start, double change, double min, double max) {
+		double from, to;
+		if (change == 0) {
+			from = start >= min && start <= max ? window[0] : Double.NaN;
+			to = window[1];
+		} else {
+			from = (change > 0 ? min : max) - start;
+			to = (change > 0 ? max : min) - start;
+			from = from / change;
+			to = to / change;
+		}
+		window[0] = Math.max(window[0], from);
+		window[1] = Math.min(window[1], to);
+	}
+	
+	/**
+	 * First minute of the eclipse tests in a window, the test of minute m is at the fraction (m+1)/1440
+	 * @param from fraction of the day of the start of the window
+	 * @return minute, {@value #ECLIPSE_WINDOW_MARGIN} minutes of round off before the window
+	 */
+	private static int firstMinute(double from) {
+		return Math.max(0, (int) Math.floor(from * MINUTES_IN_DAY) - 1 - ECLIPSE_WINDOW_MARGIN);
+	}
+	
+	/**
+	 * Last minute of the eclipse tests in a window
+	 * @param to fraction of the day of the end of the window
+	 * @return minute, {@value #ECLIPSE_WINDOW_MARGIN} minutes of round off after the window
+	 */
+	private static int lastMinute(double to) {
+		return Math.min(MINUTES_IN_DAY - 1, (int) Math.ceil(to * MINUTES_IN_DAY) - 1 + ECLIPSE_WINDOW_MARGIN);
 	}
 	
 	double arredondar(double valor, int casas, int ceilOrFloor) {  
@@ -0,0 +1,299 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Ephemeris of the sun, the moon and the planets as Chebyshev polynomials over fixed segments of time,
+ * fitted to the theories of the calculator (see {@link Calculator#calculateBodyPosition(Body, double)}).
+ *
+ * <p>Each segment keeps the coefficients of the right ascension, declination, ecliptic longitude, ecliptic
+ * latitude and distance of a body, so a position is evaluated with a few dozen multiplications instead of the
+ * series of the moon or the orbit of a planet. The angles are fitted unwrapped and returned normalized, the right
+ * ascension in [0, 2PI) radians and the ecliptic longitude in [0, 360) degrees.</p>
+ *
+ * <p>The fit is checked against the theories between the nodes of each segment when it is built, the largest
+ * difference found per body and component is reported by {@link #getMaxError(Body, int)}. An ephemeris is
+ * immutable, it can be shared by any number of threads, used by a calculator
+ * ({@link Calculator#setChebyshevEphemeris(ChebyshevEphemeris)}) and saved to disk to be loaded at startup.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public final class ChebyshevEphemeris implements Serializable {
+	/**
+	 * serialVersionUID
+	 */
+	private static final long serialVersionUID = 4906384725023861871L;
+	/**
+	 * Components of a position
+	 */
+	public static final int RIGHT_ASCENTION = 0;
+	public static final int DECLINATION = 1;
+	public static final int LONGITUDE_ECLIPTIC = 2;
+	public static final int LATITUDE_ECLIPTIC = 3;
+	public static final int DISTANCE = 4;
+	private static final int COMPONENTS = 5;
+	/**
+	 * {@value #DEFAULT_DEGREE} Degree of the polynomials by default
+	 */
+	public static final int DEFAULT_DEGREE = 12;
+	/**
+	 * Period of each component (0 when it is not an angle)
+	 */
+	private static final double[] PERIOD = {2*Math.PI, 0, 360, 0, 0};
+	/**
+	 * Segments of each body, by ordinal (null when the body is not in the ephemeris)
+	 */
+	private final Segments[] bodies;
+
+	private ChebyshevEphemeris(Segments[] bodies) {
+		this.bodies = bodies;
+	}
+
+	/**
+	 * Length of the segments of a body by default: 4 days for the moon, 8 for Mercury,
+	 * 16 for the sun, Venus and Mars and 32 for the outer planets
+	 * @param body body of solar system
+	 * @return days of each segment
+	 */
+	public static double defaultSegmentDays(Body body) {
+		switch (body) {
+		case MOON:
+			return 4;
+		case MERCURY:
+			return 8;
+		case SUN:
+		case VENUS:
+		case MARS:
+			return 16;
+		default:
+			return 32;
+		}
+	}
+
+	/**
+	 * Build the ephemeris of bodies with the segments by default
+	 * @param fromDaysFromEpoc first day (days from J2000, as used by the calculator)
+	 * @param toDaysFromEpoc last day (days from J2000, as used by the calculator)
+	 * @param bodies bodies of the ephemeris, all of them when empty
+	 * @return ChebyshevEphemeris
+	 */
+	public static ChebyshevEphemeris build(double fromDaysFromEpoc, double toDaysFromEpoc, Body... bodies) {
+		return build(fromDaysFromEpoc, toDaysFromEpoc, 0, DEFAULT_DEGREE, bodies);
+	}
+
+	/**
+	 * Build the ephemeris of bodies
+	 * @param fromDaysFromEpoc first day (days from J2000, as used by the calculator)
+	 * @param toDaysFromEpoc last day (days from J2000, as used by the calculator)
+	 * @param segmentDays days of each segment, 0 for {@link #defaultSegmentDays(Body)}
+	 * @param degree degree of the polynomials
+	 * @param bodies bodies of the ephemeris, all of them when empty
+	 * @return ChebyshevEphemeris
+	 */
+	public static ChebyshevEphemeris build(double fromDaysFromEpoc, double toDaysFromEpoc, double segmentDays, int degree,
+			Body... bodies) {
+		if (!(toDaysFromEpoc > fromDaysFromEpoc) || segmentDays < 0 || degree < 1) {
+			throw new IllegalArgumentException("Invalid ephemeris from " + fromDaysFromEpoc + " to " + toDaysFromEpoc
+					+ ", segment " + segmentDays + ", degree " + degree);
+		}
+		if (bodies.length == 0) {
+			bodies = Body.values();
+		}
+		Calculator calculator = new Calculator();
+		Segments[] segments = new Segments[Body.values().length];
+		for (Body body : bodies) {
+			double days = segmentDays > 0 ? segmentDays : defaultSegmentDays(body);
+			segments[body.ordinal()] = new Segments(calculator, body, fromDaysFromEpoc, toDaysFromEpoc, days, degree);
+		}
+		return new ChebyshevEphemeris(segments);
+	}
+
+	/**
+	 * Check if the ephemeris has a body at an epoch
+	 * @param body body of solar system
+	 * @param daysFromEpoc days From Epoc
+	 * @return boolean
+	 */
+	public boolean covers(Body body, double daysFromEpoc) {
+		Segments segments = bodies[body.ordinal()];
+		return segments != null && daysFromEpoc >= segments.from && daysFromEpoc <= segments.to;
+	}
+
+	/**
+	 * Position of a body at an epoch
+	 * @param body body of solar system
+	 * @param daysFromEpoc days From Epoc, see {@link #covers(Body, double)}
+	 * @return new Position
+	 */
+	public Position position(Body body, double daysFromEpoc) {
+		if (!covers(body, daysFromEpoc)) {
+			throw new IllegalArgumentException(body + " is not in the ephemeris at " + daysFromEpoc);
+		}
+		Segments segments = bodies[body.ordinal()];
+		int s = segments.segment(daysFromEpoc);
+		double rightAscention = normalize(segments.evaluate(s, RIGHT_ASCENTION, daysFromEpoc), PERIOD[RIGHT_ASCENTION]);
+		double declination = segments.evaluate(s, DECLINATION, daysFromEpoc);
+		double longitudeEcliptic = normalize(segments.evaluate(s, LONGITUDE_ECLIPTIC, daysFromEpoc), PERIOD[LONGITUDE_ECLIPTIC]);
+		double distance = segments.evaluate(s, DISTANCE, daysFromEpoc);
+		Position position = new Position(rightAscention, declination, longitudeEcliptic, distance);
+		position.setLatitudeEcliptic(segments.evaluate(s, LATITUDE_ECLIPTIC, daysFromEpoc));
+		return position;
+	}
+
+	/**
+	 * Largest difference to the theory found for a body, in the unit of the component
+	 * (radians for the right ascension and declination, degrees for the ecliptic coordinates)
+	 * @param body body of solar system
+	 * @param component {@link #RIGHT_ASCENTION}, {@link #DECLINATION}, {@link #LONGITUDE_ECLIPTIC},
+	 * {@link #LATITUDE_ECLIPTIC} or {@link #DISTANCE}
+	 * @return max error, NaN when the body is not in the ephemeris
+	 */
+	public double getMaxError(Body body, int component) {
+		Segments segments = bodies[body.ordinal()];
+		return segments == null ? Double.NaN : segments.maxError[component];
+	}
+
+	/**
+	 * Save the ephemeris
+	 * @param out stream, not closed
+	 * @throws IOException error of the stream
+	 */
+	public void save(OutputStream out) throws IOException {
+		ObjectOutputStream stream = new ObjectOutputStream(out);
+		stream.writeObject(this);
+		stream.flush();
+	}
+
+	/**
+	 * Load an ephemeris saved by {@link #save(OutputStream)}
+	 * @param in stream, not closed
+	 * @return ChebyshevEphemeris
+	 * @throws IOException error of the stream or invalid content
+	 */
+	public static ChebyshevEphemeris load(InputStream in) throws IOException {
+		ObjectInputStream stream = new ObjectInputStream(in);
+		try {
+			return (ChebyshevEphemeris) stream.readObject();
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Invalid ephemeris: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Angle in [0, period)
+	 * @param angle angle
+	 * @param period period of the angle
+	 * @return angle
+	 */
+	private static double normalize(double angle, double period) {
+		angle = angle % period;
+		return angle < 0 ? angle + period : angle;
+	}
+
+	/**
+	 * Chebyshev segments of a body
+	 */
+	private static final class Segments implements Serializable {
+		private static final long serialVersionUID = -5720139472960468473L;
+		final double from, to, segmentDays;
+		final int degree;
+		/**
+		 * Coefficients of segment s and component c start at (s*COMPONENTS + c)*(degree+1)
+		 */
+		final double[] coefficients;
+		final double[] maxError = new double[COMPONENTS];
+
+		Segments(Calculator calculator, Body body, double from, double to, double segmentDays, int degree) {
+			this.from = from;
+			this.to = to;
+			this.segmentDays = segmentDays;
+			this.degree = degree;
+			int count = Math.max(1, (int) Math.ceil((to - from) / segmentDays));
+			int nodes = degree + 1;
+			this.coefficients = new double[count * COMPONENTS * nodes];
+
+			double[][] values = new double[COMPONENTS][nodes];
+			for (int s = 0; s < count; s++) {
+				double start = from + s * segmentDays;
+				// nodes from the start to the end of the segment, so each angle is unwrapped from the previous one
+				for (int k = nodes - 1; k >= 0; k--) {
+					double x = Math.cos(Math.PI * (k + 0.5) / nodes);
+					Position position = calculator.calculateBodyPosition(body, start + (x + 1) / 2 * segmentDays);
+					double[] components = components(position);
+					for (int c = 0; c < COMPONENTS; c++) {
+						values[c][k] = k == nodes - 1 ? components[c] : unwrap(components[c], values[c][k + 1], PERIOD[c]);
+					}
+				}
+				for (int c = 0; c < COMPONENTS; c++) {
+					int offset = (s * COMPONENTS + c) * nodes;
+					for (int j = 0; j < nodes; j++) {
+						double sum = 0;
+						for (int k = 0; k < nodes; k++) {
+							sum += values[c][k] * Math.cos(Math.PI * j * (k + 0.5) / nodes);
+						}
+						coefficients[offset + j] = 2 * sum / nodes;
+					}
+				}
+				// the error between the nodes, at twice their density
+				for (int i = 0; i <= 2 * nodes; i++) {
+					double t = Math.min(to, start + segmentDays * i / (2 * nodes));
+					double[] expected = components(calculator.calculateBodyPosition(body, t));
+					for (int c = 0; c < COMPONENTS; c++) {
+						double error = evaluate(s, c, t) - expected[c];
+						if (PERIOD[c] > 0) {
+							error = unwrap(error, 0, PERIOD[c]);
+						}
+						maxError[c] = Math.max(maxError[c], Math.abs(error));
+					}
+				}
+			}
+		}
+
+		/**
+		 * Segment of an epoch
+		 * @param daysFromEpoc days From Epoc
+		 * @return index of the segment
+		 */
+		int segment(double daysFromEpoc) {
+			int count = coefficients.length / (COMPONENTS * (degree + 1));
+			return Math.min(count - 1, (int) ((daysFromEpoc - from) / segmentDays));
+		}
+
+		/**
+		 * Clenshaw evaluation of a component of a segment, unwrapped for the angles
+		 */
+		double evaluate(int s, int component, double daysFromEpoc) {
+			double start = from + s * segmentDays;
+			double x = 2 * (daysFromEpoc - start) / segmentDays - 1;
+			int offset = (s * COMPONENTS + component) * (degree + 1);
+			double b1 = 0, b2 = 0;
+			for (int j = degree; j >= 1; j--) {
+				double b = 2 * x * b1 - b2 + coefficients[offset + j];
+				b2 = b1;
+				b1 = b;
+			}
+			return x * b1 - b2 + coefficients[offset] / 2;
+		}
+
+		private static double[] components(Position position) {
+			return new double[] {position.getRightAscention(), position.getDeclination(), position.getLongitudeEcliptic(),
+					position.getLatitudeEcliptic(), position.getDistance()};
+		}
+
+		/**
+		 * Angle plus the turns that bring it nearest to a reference
+		 */
+		private static double unwrap(double angle, double reference, double period) {
+			if (period == 0) {
+				return angle;
+			}
+			return angle - period * Math.rint((angle - reference) / period);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package br.com.henriquewilhelm.orbit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Classe of Test App for the thread-safe {@link Calculator#calculate(CalculationContext)}: many threads share one
+ * calculator and each result is compared with the one of a calculator of its own. Exits with status 1 on any
+ * mismatch.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public class ConcurrencyTeste {
+	/**
+	 * {@value #THREADS} Threads sharing the calculator
+	 */
+	private static final int THREADS = 8;
+	/**
+	 * {@value #ROUNDS} Requests of each thread
+	 */
+	private static final int ROUNDS = 24;
+	/**
+	 * Locations of the requests (latitude, longitude): Florianopolis, Chicago, Tromso and Sydney
+	 */
+	private static final double[][] LOCATIONS = {
+			{ -27.185768, -48.575556 }, { 41.878114, -87.629798 }, { 69.649205, 18.955324 }, { -33.868820, 151.209296 } };
+	/**
+	 * Time zones of the locations
+	 */
+	private static final String[] TIME_ZONES = { "America/Sao_Paulo", "America/Chicago", "Europe/Oslo", "Australia/Sydney" };
+	/**
+	 * {@value #START} Date of the first request in milliseconds since January 1, 1970 UTC (2018-01-10 12:00 UTC)
+	 */
+	private static final long START = 1515585600000L;
+	/**
+	 * {@value #STEP} Milliseconds between the dates of the requests (a bit more than 47 days)
+	 */
+	private static final long STEP = 4078000000L;
+
+	/**
+	 * Main of Test App for the thread-safe calculation
+	 * @param args String args
+	 * @throws Exception if a thread fails
+	 */
+	public static void main(String[] args) throws Exception {
+		final Calculator shared = new Calculator();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			futures.add(executor.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					Calculator own = new Calculator();
+					int mismatches = 0;
+					for (int i = 0; i < ROUNDS; i++) {
+						// the threads walk the requests in different orders, so the same ones run at different times
+						int request = (i * (thread + 1) + thread) % ROUNDS;
+						CalculationContext context = context(request);
+						String expected = describe(own.calculate(context));
+						String actual = describe(shared.calculate(context));
+						if (!expected.equals(actual)) {
+							mismatches++;
+							System.out.printf("**Mismatch thread %d request %d****\n%s\n**Expected****\n%s\n", thread,
+									request, actual, expected);
+						}
+					}
+					return mismatches;
+				}
+			}));
+		}
+		int mismatches = 0;
+		for (Future<Integer> future : futures) {
+			mismatches += future.get();
+		}
+		executor.shutdown();
+		System.out.printf("**%d threads, %d requests, %d mismatches****\n", THREADS, THREADS * ROUNDS, mismatches);
+		if (mismatches > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Request of an index, over the locations and a span of some years
+	 * @param request index of the request
+	 * @return context
+	 */
+	private static CalculationContext context(int request) {
+		int location = request % LOCATIONS.length;
+		GpsCoordinate gps = new GpsCoordinate(LOCATIONS[location][0], LOCATIONS[location][1]);
+		return new CalculationContext(gps, TimeZone.getTimeZone(TIME_ZONES[location]), START + request * STEP);
+	}
+
+	/**
+	 * Text of a result with its year data
+	 * @param result Result
+	 * @return text
+	 */
+	private static String describe(Result result) {
+		return result.toString() + result.getSolarYear() + result.getPlanetYear() + result.getApogeeList()
+				+ result.getPerigeeList() + result.getEclipseLunar() + result.getEclipseSolar();
+	}
+}
@@ -0,0 +1,71 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * Events of a day of a range, see {@link Calculator#days(CalculationContext, LocalDate, LocalDate)}: the sun,
+ * the moon and the planets of the day and its eclipses, as a day of the year of {@link Result}. The events of
+ * the products that were not asked for are null.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public final class DayEvents implements Serializable {
+	private static final long serialVersionUID = 4412390515720744871L;
+	/**
+	 * Day of the events
+	 */
+	private final LocalDate date;
+	private final SunEvent sun;
+	private final MoonEvent moon;
+	/**
+	 * Events of the planets, in the order of {@link Body#PLANETS}
+	 */
+	private final ArrayList<Event> planets;
+	private final boolean eclipseLunar, eclipseSolar;
+
+	/**
+	 * Construtor
+	 * @param date day of the events
+	 * @param sun SunEvent, null without the sun
+	 * @param moon MoonEvent, null without the moon
+	 * @param planets events of the planets, null without the planets
+	 * @param eclipseLunar true when there is a lunar eclipse on the day
+	 * @param eclipseSolar true when there is a solar eclipse on the day
+	 */
+	DayEvents(LocalDate date, SunEvent sun, MoonEvent moon, ArrayList<Event> planets, boolean eclipseLunar,
+			boolean eclipseSolar) {
+		this.date = date;
+		this.sun = sun;
+		this.moon = moon;
+		this.planets = planets;
+		this.eclipseLunar = eclipseLunar;
+		this.eclipseSolar = eclipseSolar;
+	}
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+	public SunEvent getSun() {
+		return sun;
+	}
+
+	public MoonEvent getMoon() {
+		return moon;
+	}
+
+	public ArrayList<Event> getPlanets() {
+		return planets;
+	}
+
+	public boolean isEclipseLunar() {
+		return eclipseLunar;
+	}
+
+	public boolean isEclipseSolar() {
+		return eclipseSolar;
+	}
+}
@@ -0,0 +1,137 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of the positions of the bodies over consecutive days.
+ *
+ * <p>Each day needs the position of a body today and tomorrow. When the window moves to the
+ * next day the position of tomorrow becomes the position of today, so only one new epoch is
+ * computed per body and per day. Each body moves on its own, when it is asked for. Epochs closer than
+ * {@link #EPOCH_TOLERANCE} are the same epoch, so the rounding of the time zone shift of the epochs does not
+ * break the window. A day that does not follow the previous one (e.g. a change of daylight saving time shifts
+ * the epoch) computes both positions again. The results are the positions of the epochs asked, to within the
+ * tolerance.</p>
+ *
+ * <p>The positions are only read by the calculator, an instance is not thread-safe.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+final class DayWindow {
+	/**
+	 * {@value #EPOCH_TOLERANCE} Days between two epochs taken as the same (about 0.1 ms, far below the minute
+	 * of the events)
+	 */
+	private static final double EPOCH_TOLERANCE = 1e-9;
+	/**
+	 * Calculator of the positions
+	 */
+	private final Calculator calculator;
+	/**
+	 * Accuracy of the positions
+	 */
+	private final Accuracy accuracy;
+	/**
+	 * Epoch of today, position of today and of tomorrow, per body
+	 */
+	private final double[] epoch = new double[Body.values().length];
+	private final Position[] today = new Position[Body.values().length];
+	private final Position[] tomorrow = new Position[Body.values().length];
+
+	/**
+	 * Construtor of an empty window
+	 * @param calculator calculator of the positions
+	 * @param accuracy accuracy of the positions
+	 */
+	DayWindow(Calculator calculator, Accuracy accuracy) {
+		this.calculator = calculator;
+		this.accuracy = accuracy;
+		Arrays.fill(epoch, Double.NaN);
+	}
+
+	Accuracy getAccuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * Position of a body at an epoch
+	 * @param body body of solar system
+	 * @param daysFromEpoc days From Epoc of today
+	 * @return Position
+	 */
+	Position today(Body body, double daysFromEpoc) {
+		return today[move(body, daysFromEpoc)];
+	}
+
+	/**
+	 * Position of a body one day after an epoch
+	 * @param body body of solar system
+	 * @param daysFromEpoc days From Epoc of today
+	 * @return Position
+	 */
+	Position tomorrow(Body body, double daysFromEpoc) {
+		return tomorrow[move(body, daysFromEpoc)];
+	}
+
+	/**
+	 * Move the windows of all the planets to an epoch, the planets of a new epoch are computed together
+	 * (see {@link Calculator#planetPositions(double, Accuracy, Position[])})
+	 * @param daysFromEpoc days From Epoc of today
+	 */
+	void movePlanets(double daysFromEpoc) {
+		boolean current = true, shift = true;
+		for (Body planet : Body.PLANETS) {
+			current = current && same(epoch[planet.ordinal()], daysFromEpoc);
+			shift = shift && same(epoch[planet.ordinal()]+1, daysFromEpoc);
+		}
+		if (current) {
+			return;
+		}
+		Position[] positions = new Position[Body.PLANETS.length];
+		if (!shift) {
+			calculator.planetPositions(daysFromEpoc, accuracy, positions);
+		}
+		for (int i = 0; i < positions.length; i++) {
+			int k = Body.PLANETS[i].ordinal();
+			today[k] = shift ? tomorrow[k] : positions[i];
+		}
+		calculator.planetPositions(daysFromEpoc+1, accuracy, positions);
+		for (int i = 0; i < positions.length; i++) {
+			int k = Body.PLANETS[i].ordinal();
+			tomorrow[k] = positions[i];
+			epoch[k] = daysFromEpoc;
+		}
+	}
+
+	/**
+	 * Move the window of a body to an epoch
+	 * @param body body of solar system
+	 * @param daysFromEpoc days From Epoc of today
+	 * @return index of the body
+	 */
+	private int move(Body body, double daysFromEpoc) {
+		int k = body.ordinal();
+		if (same(epoch[k], daysFromEpoc)) {
+			return k;
+		}
+		if (same(epoch[k]+1, daysFromEpoc)) {
+			today[k] = tomorrow[k];
+		} else {
+			today[k] = calculator.position(body, daysFromEpoc, accuracy);
+		}
+		tomorrow[k] = calculator.position(body, daysFromEpoc+1, accuracy);
+		epoch[k] = daysFromEpoc;
+		return k;
+	}
+
+	/**
+	 * Check if two epochs are the same, see {@link #EPOCH_TOLERANCE}
+	 * @param epoch epoch of the window (NaN when empty)
+	 * @param daysFromEpoc epoch asked
+	 * @return true when they are closer than the tolerance
+	 */
+	private static boolean same(double epoch, double daysFromEpoc) {
+		return Math.abs(epoch - daysFromEpoc) < EPOCH_TOLERANCE;
+	}
+}
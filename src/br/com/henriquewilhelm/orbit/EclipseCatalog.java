@@ -0,0 +1,408 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Solar and lunar eclipses of a range of dates, for any location.
+ *
+ * <p>The search walks the lunations directly (new moon k, full moon k + 0.5, k = 0 at the new moon of
+ * 2000-01-06) with the method of Meeus, Astronomical Algorithms, chapter 54: a syzygy far from the nodes
+ * (|sin F| &gt; 0.36) is rejected with a few operations, the others get the instant of the greatest eclipse,
+ * the least distance of the axis of the shadow to the center of the Earth (gamma, in Earth radii), the radius
+ * of the umbral cone (u) and the type and magnitude of the eclipse. The instants are within a few minutes.
+ * No horizon or location is involved, the visibility at a location is the one of the events of the calculator.</p>
+ *
+ * <p>The eclipses are streamed to a consumer in the order of time as they are found, the lunations can be searched
+ * in blocks by the threads of the common fork/join pool with a bounded number of blocks in memory.
+ * A catalog keeps the eclipses of a search in primitive arrays, it is immutable, it can be shared by any
+ * number of threads and saved to disk to be loaded again.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public final class EclipseCatalog implements Serializable {
+	/**
+	 * serialVersionUID
+	 */
+	private static final long serialVersionUID = -2875094217631947307L;
+	/**
+	 * {@value #LUNATION_EPOC} Julian ephemeris date of the mean new moon k = 0
+	 */
+	private static final double LUNATION_EPOC = 2451550.09766;
+	/**
+	 * {@value #SYNODIC_MONTH} Mean synodic month in days
+	 */
+	private static final double SYNODIC_MONTH = 29.530588861;
+	/**
+	 * {@value #BLOCK_PHASES} New and full moons searched by a task (about 40 years)
+	 */
+	private static final int BLOCK_PHASES = 1000;
+	/**
+	 * {@value #DR}
+	 */
+	private static final double DR = Math.PI/180.0; //degrees to radians constant
+
+	/**
+	 * Type of an eclipse
+	 */
+	public enum Type {
+		SOLAR_TOTAL,
+		SOLAR_ANNULAR,
+		/**
+		 * Annular-total (hybrid) solar eclipse
+		 */
+		SOLAR_HYBRID,
+		/**
+		 * Total or annular solar eclipse whose axis misses the Earth, see {@link Eclipse#getU()}
+		 */
+		SOLAR_NON_CENTRAL,
+		SOLAR_PARTIAL,
+		LUNAR_TOTAL,
+		LUNAR_PARTIAL,
+		LUNAR_PENUMBRAL;
+
+		public boolean isSolar() {
+			return ordinal() <= SOLAR_PARTIAL.ordinal();
+		}
+	}
+
+	/**
+	 * Eclipse of the catalog
+	 */
+	public static final class Eclipse implements Serializable {
+		private static final long serialVersionUID = 6131770946205386385L;
+		private final double lunation;
+		private final Type type;
+		private final double julianDate;
+		private final double gamma;
+		private final double u;
+		private final double magnitude;
+
+		/**
+		 * Construtor
+		 * @param lunation lunation, integer for a new moon and plus 0.5 for a full moon
+		 * @param type type of the eclipse
+		 * @param julianDate julian ephemeris date (TT) of the greatest eclipse
+		 * @param gamma least distance of the axis of the shadow to the center of the Earth (Earth radii)
+		 * @param u radius of the umbral cone in the fundamental plane (Earth radii)
+		 * @param magnitude magnitude of the eclipse, see {@link #getMagnitude()}
+		 */
+		public Eclipse(double lunation, Type type, double julianDate, double gamma, double u, double magnitude) {
+			this.lunation = lunation;
+			this.type = type;
+			this.julianDate = julianDate;
+			this.gamma = gamma;
+			this.u = u;
+			this.magnitude = magnitude;
+		}
+
+		public double getLunation() {
+			return lunation;
+		}
+
+		public Type getType() {
+			return type;
+		}
+
+		/**
+		 * @return julian ephemeris date (TT) of the greatest eclipse
+		 */
+		public double getJulianDate() {
+			return julianDate;
+		}
+
+		public double getGamma() {
+			return gamma;
+		}
+
+		public double getU() {
+			return u;
+		}
+
+		/**
+		 * Magnitude of the eclipse: of the partial phase for a solar eclipse (NaN when it is central),
+		 * of the umbra for a lunar eclipse (the penumbral magnitude for a penumbral one)
+		 * @return magnitude
+		 */
+		public double getMagnitude() {
+			return magnitude;
+		}
+
+		@Override
+		public String toString() {
+			return type + "\t JulianDate " + julianDate + "\t Lunation " + lunation + "\t Gamma " + gamma
+					+ "\t Magnitude " + magnitude;
+		}
+	}
+
+	/**
+	 * Eclipses of the catalog in the order of time, column by column
+	 */
+	private final double[] lunations;
+	private final byte[] types;
+	private final double[] julianDates;
+	private final double[] gammas;
+	private final double[] us;
+	private final double[] magnitudes;
+
+	private EclipseCatalog(ArrayList<Eclipse> eclipses) {
+		int count = eclipses.size();
+		lunations = new double[count];
+		types = new byte[count];
+		julianDates = new double[count];
+		gammas = new double[count];
+		us = new double[count];
+		magnitudes = new double[count];
+		for (int i = 0; i < count; i++) {
+			Eclipse eclipse = eclipses.get(i);
+			lunations[i] = eclipse.lunation;
+			types[i] = (byte) eclipse.type.ordinal();
+			julianDates[i] = eclipse.julianDate;
+			gammas[i] = eclipse.gamma;
+			us[i] = eclipse.u;
+			magnitudes[i] = eclipse.magnitude;
+		}
+	}
+
+	/**
+	 * Build the catalog of a range of dates, the lunations are searched by all the threads of the common pool
+	 * @param fromJulianDate first julian date
+	 * @param toJulianDate julian date after the last one
+	 * @return EclipseCatalog
+	 */
+	public static EclipseCatalog build(double fromJulianDate, double toJulianDate) {
+		final ArrayList<Eclipse> eclipses = new ArrayList<Eclipse>();
+		search(fromJulianDate, toJulianDate, ForkJoinPool.getCommonPoolParallelism(), eclipses::add);
+		return new EclipseCatalog(eclipses);
+	}
+
+	/**
+	 * Search the eclipses of a range of dates on the calling thread
+	 * @param fromJulianDate first julian date
+	 * @param toJulianDate julian date after the last one
+	 * @param consumer receives each eclipse, in the order of time
+	 */
+	public static void search(double fromJulianDate, double toJulianDate, Consumer<? super Eclipse> consumer) {
+		search(fromJulianDate, toJulianDate, 1, consumer);
+	}
+
+	/**
+	 * Search the eclipses of a range of dates in blocks of lunations. Up to parallelism blocks are searched
+	 * at once by the common fork/join pool, the consumer is called on the calling thread, in the order of time,
+	 * as soon as the blocks before are done.
+	 * @param fromJulianDate first julian date
+	 * @param toJulianDate julian date after the last one
+	 * @param parallelism blocks searched at once, 1 or less searches on the calling thread
+	 * @param consumer receives each eclipse, in the order of time
+	 */
+	public static void search(double fromJulianDate, double toJulianDate, int parallelism,
+			Consumer<? super Eclipse> consumer) {
+		if (!(toJulianDate >= fromJulianDate)) {
+			throw new IllegalArgumentException("Invalid range from " + fromJulianDate + " to " + toJulianDate);
+		}
+		// new and full moons by index (k = phase / 2), from the one before the range (the greatest eclipse is
+		// within a few hours of the mean phase) to the one after it
+		long firstPhase = (long) Math.floor((fromJulianDate - LUNATION_EPOC) / SYNODIC_MONTH * 2) - 1;
+		long lastPhase = (long) Math.ceil((toJulianDate - LUNATION_EPOC) / SYNODIC_MONTH * 2) + 1;
+		if (parallelism <= 1) {
+			for (long phase = firstPhase; phase <= lastPhase; phase += BLOCK_PHASES) {
+				long end = Math.min(lastPhase + 1, phase + BLOCK_PHASES);
+				for (Eclipse eclipse : searchBlock(phase, end, fromJulianDate, toJulianDate)) {
+					consumer.accept(eclipse);
+				}
+			}
+			return;
+		}
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		ArrayDeque<ForkJoinTask<Eclipse[]>> blocks = new ArrayDeque<ForkJoinTask<Eclipse[]>>();
+		long next = firstPhase;
+		while (next <= lastPhase || !blocks.isEmpty()) {
+			while (next <= lastPhase && blocks.size() < parallelism) {
+				final long from = next;
+				final long end = Math.min(lastPhase + 1, next + BLOCK_PHASES);
+				blocks.add(pool.submit(() -> searchBlock(from, end, fromJulianDate, toJulianDate)));
+				next = end;
+			}
+			for (Eclipse eclipse : blocks.poll().join()) {
+				consumer.accept(eclipse);
+			}
+		}
+	}
+
+	/**
+	 * Eclipses of a block of new and full moons within a range of dates
+	 * @param fromPhase first phase (lunation times 2)
+	 * @param endPhase phase after the last one
+	 * @param fromJulianDate first julian date
+	 * @param toJulianDate julian date after the last one
+	 * @return eclipses in the order of time
+	 */
+	private static Eclipse[] searchBlock(long fromPhase, long endPhase, double fromJulianDate, double toJulianDate) {
+		ArrayList<Eclipse> ret = new ArrayList<Eclipse>();
+		for (long phase = fromPhase; phase < endPhase; phase++) {
+			Eclipse eclipse = eclipse(phase / 2.0);
+			if (eclipse != null && eclipse.julianDate >= fromJulianDate && eclipse.julianDate < toJulianDate) {
+				ret.add(eclipse);
+			}
+		}
+		return ret.toArray(new Eclipse[ret.size()]);
+	}
+
+	/**
+	 * Eclipse of a new or full moon (Meeus, chapter 54)
+	 * @param k lunation, integer for a new moon and plus 0.5 for a full moon
+	 * @return Eclipse or null when there is no eclipse
+	 */
+	public static Eclipse eclipse(double k) {
+		double T = k / 1236.85;
+		double T2 = T*T, T3 = T2*T, T4 = T3*T;
+		double F = (160.7108 + 390.67050284*k - 0.0016118*T2 - 0.00000227*T3 + 0.000000011*T4) * DR;
+		// too far from the node
+		if (Math.abs(Math.sin(F)) > 0.36) {
+			return null;
+		}
+		boolean solar = k == Math.floor(k);
+		double JDE = LUNATION_EPOC + SYNODIC_MONTH*k + 0.00015437*T2 - 0.000000150*T3 + 0.00000000073*T4;
+		double M = (2.5534 + 29.10535670*k - 0.0000014*T2 - 0.00000011*T3) * DR;
+		double Mm = (201.5643 + 385.81693528*k + 0.0107582*T2 + 0.00001238*T3 - 0.000000058*T4) * DR;
+		double omega = (124.7746 - 1.56375588*k + 0.0020672*T2 + 0.00000215*T3) * DR;
+		double E = 1 - 0.002516*T - 0.0000074*T2;
+		double F1 = F - 0.02665*DR*Math.sin(omega);
+		double A1 = (299.77 + 0.107408*k - 0.009173*T2) * DR;
+
+		double greatest = JDE
+				+ (solar ? -0.4075 : -0.4065)*Math.sin(Mm)
+				+ (solar ? 0.1721 : 0.1727)*E*Math.sin(M)
+				+ 0.0161*Math.sin(2*Mm)
+				- 0.0097*Math.sin(2*F1)
+				+ 0.0073*E*Math.sin(Mm - M)
+				- 0.0050*E*Math.sin(Mm + M)
+				- 0.0023*Math.sin(Mm - 2*F1)
+				+ 0.0021*E*Math.sin(2*M)
+				+ 0.0012*Math.sin(Mm + 2*F1)
+				+ 0.0006*E*Math.sin(2*Mm + M)
+				- 0.0004*Math.sin(3*Mm)
+				- 0.0003*E*Math.sin(M + 2*F1)
+				+ 0.0003*Math.sin(A1)
+				- 0.0002*E*Math.sin(M - 2*F1)
+				- 0.0002*E*Math.sin(2*Mm - M)
+				- 0.0002*Math.sin(omega);
+
+		double P = 0.2070*E*Math.sin(M) + 0.0024*E*Math.sin(2*M) - 0.0392*Math.sin(Mm) + 0.0116*Math.sin(2*Mm)
+				- 0.0073*E*Math.sin(Mm + M) + 0.0067*E*Math.sin(Mm - M) + 0.0118*Math.sin(2*F1);
+		double Q = 5.2207 - 0.0048*E*Math.cos(M) + 0.0020*E*Math.cos(2*M) - 0.3299*Math.cos(Mm)
+				- 0.0060*E*Math.cos(Mm + M) + 0.0041*E*Math.cos(Mm - M);
+		double W = Math.abs(Math.cos(F1));
+		double gamma = (P*Math.cos(F1) + Q*Math.sin(F1)) * (1 - 0.0048*W);
+		double u = 0.0059 + 0.0046*E*Math.cos(M) - 0.0182*Math.cos(Mm) + 0.0004*Math.cos(2*Mm) - 0.0005*Math.cos(M + Mm);
+		double g = Math.abs(gamma);
+
+		if (solar) {
+			if (g > 1.5433 + u) {
+				return null;
+			}
+			if (g < 0.9972) {
+				Type type;
+				if (u < 0) {
+					type = Type.SOLAR_TOTAL;
+				} else if (u > 0.0047 || u >= 0.00464*Math.sqrt(1 - gamma*gamma)) {
+					type = Type.SOLAR_ANNULAR;
+				} else {
+					type = Type.SOLAR_HYBRID;
+				}
+				return new Eclipse(k, type, greatest, gamma, u, Double.NaN);
+			}
+			double magnitude = (1.5433 + u - g) / (0.5461 + 2*u);
+			return new Eclipse(k, g < 0.9972 + Math.abs(u) ? Type.SOLAR_NON_CENTRAL : Type.SOLAR_PARTIAL,
+					greatest, gamma, u, magnitude);
+		}
+		double penumbral = (1.5573 + u - g) / 0.5450;
+		if (penumbral <= 0) {
+			return null;
+		}
+		double umbral = (1.0128 - u - g) / 0.5450;
+		if (umbral >= 1) {
+			return new Eclipse(k, Type.LUNAR_TOTAL, greatest, gamma, u, umbral);
+		}
+		if (umbral > 0) {
+			return new Eclipse(k, Type.LUNAR_PARTIAL, greatest, gamma, u, umbral);
+		}
+		return new Eclipse(k, Type.LUNAR_PENUMBRAL, greatest, gamma, u, penumbral);
+	}
+
+	/**
+	 * @return number of eclipses of the catalog
+	 */
+	public int size() {
+		return julianDates.length;
+	}
+
+	/**
+	 * Eclipse of the catalog
+	 * @param index index of the eclipse, in the order of time
+	 * @return new Eclipse
+	 */
+	public Eclipse get(int index) {
+		return new Eclipse(lunations[index], Type.values()[types[index]], julianDates[index], gammas[index], us[index],
+				magnitudes[index]);
+	}
+
+	/**
+	 * Index of the first eclipse at or after a date
+	 * @param julianDate julian ephemeris date
+	 * @return index, {@link #size()} when there is none
+	 */
+	public int indexOf(double julianDate) {
+		int index = Arrays.binarySearch(julianDates, julianDate);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	/**
+	 * Send the eclipses of a range of dates of the catalog to a consumer
+	 * @param fromJulianDate first julian ephemeris date
+	 * @param toJulianDate julian ephemeris date after the last one
+	 * @param consumer receives each eclipse, in the order of time
+	 */
+	public void forEach(double fromJulianDate, double toJulianDate, Consumer<? super Eclipse> consumer) {
+		for (int i = indexOf(fromJulianDate); i < size() && julianDates[i] < toJulianDate; i++) {
+			consumer.accept(get(i));
+		}
+	}
+
+	/**
+	 * Save the catalog
+	 * @param out stream, not closed
+	 * @throws IOException error of the stream
+	 */
+	public void save(OutputStream out) throws IOException {
+		ObjectOutputStream stream = new ObjectOutputStream(out);
+		stream.writeObject(this);
+		stream.flush();
+	}
+
+	/**
+	 * Load a catalog saved by {@link #save(OutputStream)}
+	 * @param in stream, not closed
+	 * @return EclipseCatalog
+	 * @throws IOException error of the stream or invalid content
+	 */
+	public static EclipseCatalog load(InputStream in) throws IOException {
+		ObjectInputStream stream = new ObjectInputStream(in);
+		try {
+			return (EclipseCatalog) stream.readObject();
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException("Invalid eclipse catalog: " + e.getMessage(), e);
+		}
+	}
+}
@@ -71,6 +71,8 @@ public class EclipseEvent extends MoonEvent implements Serializable {
 		setIlluminationPercent(event.getIlluminationPercent());
 		setAgeInDays(event.getAgeInDays());
 		setAnglePhase(event.getAnglePhase());
+		setApsisJulianDate(event.getApsisJulianDate());
+		setApsisDistance(event.getApsisDistance());
 		setName("Moon");
 	}
 	
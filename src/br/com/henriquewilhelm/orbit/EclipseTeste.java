@@ -0,0 +1,84 @@
+package br.com.henriquewilhelm.orbit;
+import java.util.Calendar;
+import java.util.EnumSet;
+import java.util.TimeZone;
+
+/**
+ * Classe of Test App for the windows of the eclipse checks: the solar and lunar eclipses of the years of some
+ * sites, with their begin and end, must be the same when only the minutes of a possible eclipse are tested and
+ * when every minute of every day is tested, as the legacy loop did. Exits with status 1 on any mismatch.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public class EclipseTeste {
+	/**
+	 * Sites of the years (latitude, longitude): Porto Alegre, New York, Reykjavik and Sydney
+	 */
+	private static final double[][] LOCATIONS = { { -29.7, -51.1 }, { 40.7, -74.0 }, { 64.1, -21.9 }, { -33.9, 151.2 } };
+	/**
+	 * {@value #FIRST_YEAR} First year, unless given as the first argument
+	 */
+	private static final int FIRST_YEAR = 1995;
+	/**
+	 * {@value #LAST_YEAR} Last year, unless given as the second argument
+	 */
+	private static final int LAST_YEAR = 2030;
+
+	/**
+	 * Main of Test App for the windows of the eclipse checks
+	 * @param args String args, the first and the last year
+	 */
+	public static void main(String[] args) {
+		int firstYear = args.length > 0 ? Integer.parseInt(args[0]) : FIRST_YEAR;
+		int lastYear = args.length > 1 ? Integer.parseInt(args[1]) : LAST_YEAR;
+		Calculator windows = new Calculator(), legacy = new Calculator();
+		legacy.setEclipseWindows(false);
+		EnumSet<Product> products = EnumSet.of(Product.ECLIPSES, Product.YEAR);
+		long windowsNanos = 0, legacyNanos = 0;
+		int eclipses = 0, mismatches = 0;
+		for (double[] location : LOCATIONS) {
+			GpsCoordinate gps = new GpsCoordinate(location[0], location[1]);
+			for (int year = firstYear; year <= lastYear; year++) {
+				Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+				calendar.clear();
+				calendar.set(year, Calendar.JUNE, 10, 12, 0);
+				CalculationContext context = new CalculationContext(gps, calendar, products);
+				long start = System.nanoTime();
+				String expected = describe(legacy.calculate(context));
+				long middle = System.nanoTime();
+				String actual = describe(windows.calculate(context));
+				legacyNanos += middle - start;
+				windowsNanos += System.nanoTime() - middle;
+				eclipses += actual.split(";", -1).length - 1;
+				if (!expected.equals(actual)) {
+					mismatches++;
+					System.out.printf("**Mismatch %s %d****\n%s\n**Expected****\n%s\n", gps, year, actual, expected);
+				}
+			}
+		}
+		System.out.printf("**%d eclipses, %d mismatches, windows %d ms, every minute %d ms****\n", eclipses, mismatches,
+				windowsNanos / 1000000, legacyNanos / 1000000);
+		if (mismatches > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Text of the eclipses of a result with their begin and end
+	 * @param result Result
+	 * @return text, one eclipse per ';'
+	 */
+	private static String describe(Result result) {
+		StringBuilder builder = new StringBuilder();
+		for (MoonEvent moon : result.getEclipseLunar()) {
+			builder.append("Lunar ").append(moon.getDateBegin()).append(' ').append(moon.getDateEnd()).append(' ')
+					.append(moon.getDate()).append(";\n");
+		}
+		for (SunEvent sun : result.getEclipseSolar()) {
+			builder.append("Solar ").append(sun.getDateBegin()).append(' ').append(sun.getDateEnd()).append(' ')
+					.append(sun.getDate()).append(";\n");
+		}
+		return builder.toString();
+	}
+}
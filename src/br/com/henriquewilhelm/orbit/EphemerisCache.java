@@ -0,0 +1,138 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.DoubleFunction;
+
+/**
+ * Cache of the positions of the sun, the moon and the planets per epoch (days from J2000 as used by 
+ * the calculator). These positions do not depend on the observer, only the Local Sideral Time and the
+ * horizon test do, so every location computed for the same epoch shares one evaluation per body.
+ * 
+ * <p>The cache is a fixed size table indexed by the hash of body and epoch, read and written without
+ * locks: an entry simply replaces the one that was in its slot. Its memory is bounded by the capacity and
+ * two threads missing the same entry at the same time both compute it, with the same result. The
+ * {@link Accuracy} of a position is part of its key, the tiers never share an entry.</p>
+ * 
+ * <p>Entries keep the values of the position, every lookup returns a new {@link Position}, so the
+ * positions handed out can be changed without affecting the cache.</p>
+ * 
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public final class EphemerisCache {
+	/**
+	 * {@value #DEFAULT_CAPACITY} Entries of the shared cache
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	/**
+	 * Cache shared by all calculators
+	 */
+	private static final EphemerisCache SHARED = new EphemerisCache(DEFAULT_CAPACITY);
+	
+	private final AtomicReferenceArray<Entry> table;
+	private final int mask;
+	
+	/**
+	 * Cache shared by all calculators
+	 * @return EphemerisCache
+	 */
+	public static EphemerisCache getShared() {
+		return SHARED;
+	}
+	
+	/**
+	 * Construtor with a capacity, rounded up to a power of two
+	 * @param capacity maximum number of positions kept
+	 */
+	public EphemerisCache(int capacity) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		}
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size = size << 1;
+		}
+		this.table = new AtomicReferenceArray<Entry>(size);
+		this.mask = size - 1;
+	}
+	
+	/**
+	 * Position of a body at an epoch, computed by the source when it is not in the cache
+	 * @param body element of the solar system
+	 * @param daysFromEpoc days From Epoc
+	 * @param source computes the position of the body at an epoch
+	 * @return new Position
+	 */
+	public Position get(Body body, double daysFromEpoc, DoubleFunction<Position> source) {
+		return get(body, Accuracy.STANDARD, daysFromEpoc, source);
+	}
+	
+	/**
+	 * Position of a body at an epoch and accuracy, computed by the source when it is not in the cache
+	 * @param body element of the solar system
+	 * @param accuracy accuracy of the position
+	 * @param daysFromEpoc days From Epoc
+	 * @param source computes the position of the body at an epoch with the accuracy
+	 * @return new Position
+	 */
+	public Position get(Body body, Accuracy accuracy, double daysFromEpoc, DoubleFunction<Position> source) {
+		long epoch = Double.doubleToLongBits(daysFromEpoc);
+		int index = index(body, accuracy, epoch);
+		Entry entry = table.get(index);
+		if (entry == null || entry.body != body || entry.accuracy != accuracy || entry.epoch != epoch) {
+			entry = new Entry(body, accuracy, epoch, source.apply(daysFromEpoc));
+			table.set(index, entry);
+		}
+		return entry.toPosition();
+	}
+	
+	/**
+	 * Remove all positions
+	 */
+	public void clear() {
+		for (int i = 0; i < table.length(); i++) {
+			table.set(i, null);
+		}
+	}
+	
+	/**
+	 * Slot of a body, accuracy and epoch
+	 * @param body Body
+	 * @param accuracy Accuracy
+	 * @param epoch bits of the epoch
+	 * @return int index
+	 */
+	private int index(Body body, Accuracy accuracy, long epoch) {
+		long h = (epoch * 31 + body.ordinal()) * 3 + accuracy.ordinal();
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return (int) (h ^ (h >>> 33)) & mask;
+	}
+	
+	/**
+	 * Immutable position of a body at an epoch
+	 */
+	private static final class Entry {
+		final Body body;
+		final Accuracy accuracy;
+		final long epoch;
+		final double rightAscention, declination, longitudeEcliptic, latitudeEcliptic, distance;
+		
+		Entry(Body body, Accuracy accuracy, long epoch, Position position) {
+			this.body = body;
+			this.accuracy = accuracy;
+			this.epoch = epoch;
+			this.rightAscention = position.getRightAscention();
+			this.declination = position.getDeclination();
+			this.longitudeEcliptic = position.getLongitudeEcliptic();
+			this.latitudeEcliptic = position.getLatitudeEcliptic();
+			this.distance = position.getDistance();
+		}
+		
+		Position toPosition() {
+			Position position = new Position(rightAscention, declination, longitudeEcliptic, distance);
+			position.setLatitudeEcliptic(latitudeEcliptic);
+			return position;
+		}
+	}
+}
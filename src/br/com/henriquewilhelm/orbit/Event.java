@@ -47,6 +47,11 @@ public class Event implements Serializable {
 	private Time set;
 	
 	private double riseAzimuth, setAzimuth;
+	/**
+	 * Instants of the rise and the set in seconds since 1970-01-01T00:00:00Z, not truncated to the minute
+	 * (NaN when there is no rise or set, or when the event was not created by a horizon scan)
+	 */
+	private double riseEpochSecond = Double.NaN, setEpochSecond = Double.NaN;
 	/**
 	 * Type eNum ( RISEN_AND_SET, NO_CHANGE_PREVIOUSLY_RISEN, NO_CHANGE_PREVIOUSLY_SET, ONLY_SET, ONLY_RISEN)
 	 */
@@ -137,6 +142,22 @@ public class Event implements Serializable {
 		this.setAzimuth = setAzimuth;
 	}
 
+	public double getRiseEpochSecond() {
+		return riseEpochSecond;
+	}
+
+	public void setRiseEpochSecond(double riseEpochSecond) {
+		this.riseEpochSecond = riseEpochSecond;
+	}
+
+	public double getSetEpochSecond() {
+		return setEpochSecond;
+	}
+
+	public void setSetEpochSecond(double setEpochSecond) {
+		this.setEpochSecond = setEpochSecond;
+	}
+
 	public Time getMeridianCrossing() {
 		return meridianCrossing;
 	}
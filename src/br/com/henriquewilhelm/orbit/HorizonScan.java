@@ -0,0 +1,612 @@
+package br.com.henriquewilhelm.orbit;
+
+/**
+ * Primitive horizon scan of a body over one day, the same hour by hour test of
+ * {@link Calculator#testHourForEvent} without any object per hour or per observer.
+ * The day can also be scanned in coarser or finer steps (see {@link Accuracy}), or solved from the closed
+ * form hour angle of the horizon without a scan (0 steps). A day without any crossing (polar day or night,
+ * circumpolar planets) is found from the extreme altitudes of the body and not scanned.
+ *
+ * The track of the body (right ascension and the sine and cosine of the declination
+ * interpolated at each hour) does not depend on the observer, so it is loaded once
+ * with {@link #setTrack(Position, Position)} and then scanned for as many observers
+ * and horizons (sunrise, twilights, ...) as needed.
+ * An instance is a reusable buffer, it is not thread-safe.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+final class HorizonScan {
+	/**
+	 * No rise or no set in the day
+	 */
+	static final int NONE = -1;
+	/**
+	 * {@value #HOURS_IN_DAY}
+	 */
+	private static final int HOURS_IN_DAY = 24;
+	/**
+	 * {@value #DR}
+	 */
+	private static final double DR = Math.PI/180.0; //degrees to radians constant
+	/**
+	 * {@value #K1}
+	 */
+	private static final double K1 = 15.0 * DR * 1.0027379;
+	/**
+	 * {@value #NEWTON_ITERATIONS} Newton iterations of each crossing of the closed form solution
+	 */
+	private static final int NEWTON_ITERATIONS = 2;
+	/**
+	 * {@value #NEWTON_TOLERANCE} Last Newton step (fraction of the day, about a second) of a converged crossing
+	 */
+	private static final double NEWTON_TOLERANCE = 1.0E-5;
+	/**
+	 * {@value #SOLVE_MARGIN} Fraction of the day before and after it with the first guess of a crossing of the day
+	 */
+	private static final double SOLVE_MARGIN = .25;
+	/**
+	 * {@value #REFINEMENT_TOLERANCE} Width of the bracket (fraction of the day, about a millisecond) that ends the refinement
+	 */
+	private static final double REFINEMENT_TOLERANCE = 1.0E-8;
+	/**
+	 * Brent iterations of each crossing of the scan, 0 to keep the crossings of the quadratic fit
+	 */
+	private int refinement;
+	/**
+	 * Steps of the day of the loaded track (one per hour by default, 0 for the closed form solution)
+	 */
+	private int steps = HOURS_IN_DAY;
+	/**
+	 * Right ascension and declination at the start of the day and their change over the day
+	 */
+	private double todayAscention, changeInAscention, todayDeclination, changeInDeclination;
+	/**
+	 * Right ascension at the start of the day (index 0) and at the end of each step
+	 */
+	private double[] ascention = new double[HOURS_IN_DAY+1];
+	/**
+	 * Sine and cosine of the declination at the start of the day (index 0) and at the end of each step
+	 */
+	private double[] sinDeclination = new double[HOURS_IN_DAY+1];
+	private double[] cosDeclination = new double[HOURS_IN_DAY+1];
+	/**
+	 * Sine and cosine of the declination at the half of each step
+	 */
+	private double[] sinHalfDeclination = new double[HOURS_IN_DAY];
+	private double[] cosHalfDeclination = new double[HOURS_IN_DAY];
+	/**
+	 * Results of the last scan, one per horizon
+	 */
+	private int[] riseMinute = new int[1], setMinute = new int[1];
+	private double[] riseAzimuth = new double[1], setAzimuth = new double[1];
+	private double[] riseFraction = new double[1], setFraction = new double[1];
+	private double[] horizons = new double[1];
+	private double lastBase;
+
+	/**
+	 * Load the track of the body between today and tomorrow, one step per hour
+	 * @param today position of the body at the start of the day
+	 * @param tomorrow position of the body at the start of the next day
+	 */
+	void setTrack(Position today, Position tomorrow) {
+		setTrack(today, tomorrow, HOURS_IN_DAY);
+	}
+
+	/**
+	 * Load the track of the body between today and tomorrow with a number of steps,
+	 * see {@link Accuracy#getScanSteps()}
+	 * @param today position of the body at the start of the day
+	 * @param tomorrow position of the body at the start of the next day
+	 * @param steps steps of the day, 24 to test each hour, 0 to solve the crossings from the closed form hour angle
+	 */
+	void setTrack(Position today, Position tomorrow, int steps) {
+		this.steps = steps;
+		todayAscention = today.getRightAscention();
+		todayDeclination = today.getDeclination();
+		changeInAscention   = tomorrow.getRightAscention() - today.getRightAscention();
+		changeInDeclination = tomorrow.getDeclination()    - today.getDeclination();
+		if (steps > 0) {
+			setSteps(steps);
+		}
+	}
+
+	/**
+	 * Interpolate the loaded track at each step
+	 * @param steps steps of the day
+	 */
+	private void setSteps(int steps) {
+		if (ascention.length < steps+1) {
+			ascention = new double[steps+1];
+			sinDeclination = new double[steps+1];
+			cosDeclination = new double[steps+1];
+			sinHalfDeclination = new double[steps];
+			cosHalfDeclination = new double[steps];
+		}
+		double previousDeclination = todayDeclination;
+		ascention[0] = todayAscention;
+		sinDeclination[0] = Math.sin(previousDeclination);
+		cosDeclination[0] = Math.cos(previousDeclination);
+
+		for(int step=0; step<steps; step++) {
+			double fractionOfDay = (step+1) / ((double)steps);
+			double declination = todayDeclination + fractionOfDay*changeInDeclination;
+			double D1 = (declination+previousDeclination) / 2.0; //  declination at half step
+
+			ascention[step+1] = todayAscention + fractionOfDay*changeInAscention;
+			sinDeclination[step+1] = Math.sin(declination);
+			cosDeclination[step+1] = Math.cos(declination);
+			sinHalfDeclination[step] = Math.sin(D1);
+			cosHalfDeclination[step] = Math.cos(D1);
+			previousDeclination = declination;
+		}
+	}
+
+	/**
+	 * Z value of an offset from the horizon
+	 * @param fromHorizon degrees from the horizon
+	 * @param accountForAtmosphericRefraction true to use 90.833 degrees of zenith distance
+	 * @return Z value
+	 */
+	static double horizon(double fromHorizon, boolean accountForAtmosphericRefraction) {
+		//90.833 is for atmospheric refraction when sun is at the horizon.
+		double zenithDistance = DR * (accountForAtmosphericRefraction ? 90.833 : 90.0);
+		return Math.cos(zenithDistance) + fromHorizon*DR;
+	}
+
+	/**
+	 * Buffer of the horizons owned by this scan, to be filled and passed to {@link #scan(double, double, double[], int, double)}
+	 * without a copy
+	 * @param count number of horizons
+	 * @return array of at least count horizons
+	 */
+	double[] getHorizons(int count) {
+		if (horizons.length < count) {
+			horizons = new double[count];
+		}
+		return horizons;
+	}
+
+	/**
+	 * Scan the loaded track for one observer and one horizon, the results are read with the getters at index 0
+	 * @param S sine of the latitude
+	 * @param C cosine of the latitude
+	 * @param Z value of the horizon, see {@link #horizon(double, boolean)}
+	 * @param LST local sidereal time at the start of the day
+	 */
+	void scan(double S, double C, double Z, double LST) {
+		horizons[0] = Z;
+		scan(S, C, horizons, 1, LST);
+	}
+
+	/**
+	 * Scan the loaded track for one observer and any number of horizons in a single pass,
+	 * the results are read with the getters at the index of each horizon.
+	 * The altitude curve of the body is the same for every horizon, only the Z value changes,
+	 * so it is evaluated once per hour.
+	 * @param S sine of the latitude
+	 * @param C cosine of the latitude
+	 * @param Z values of the horizons, see {@link #horizon(double, boolean)}
+	 * @param count number of horizons in Z
+	 * @param LST local sidereal time at the start of the day
+	 */
+	void scan(double S, double C, double[] Z, int count, double LST) {
+		if (riseMinute.length < count) {
+			riseMinute = new int[count];
+			setMinute = new int[count];
+			riseAzimuth = new double[count];
+			setAzimuth = new double[count];
+			riseFraction = new double[count];
+			setFraction = new double[count];
+		}
+		if (Z != horizons) {
+			if (horizons.length < count) {
+				horizons = new double[count];
+			}
+			System.arraycopy(Z, 0, horizons, 0, count);
+		}
+		clear(count);
+
+		if (steps > 0) {
+			scanSteps(S, C, count, LST, steps);
+		} else if (!solve(S, C, count, LST)) {
+			// a crossing that depends on the change of declination over the day, or a grazing one
+			clear(count);
+			setSteps(HOURS_IN_DAY);
+			scanSteps(S, C, count, LST, HOURS_IN_DAY);
+		}
+	}
+
+	/**
+	 * Clear the results of the horizons
+	 * @param count number of horizons
+	 */
+	private void clear(int count) {
+		for (int k = 0; k < count; k++) {
+			riseMinute[k] = NONE;
+			setMinute[k] = NONE;
+			riseAzimuth[k] = 0;
+			setAzimuth[k] = 0;
+			riseFraction[k] = Double.NaN;
+			setFraction[k] = Double.NaN;
+		}
+	}
+
+	/**
+	 * Hour by hour (or step by step) test of the interpolated track
+	 * @param S sine of the latitude
+	 * @param C cosine of the latitude
+	 * @param count number of horizons
+	 * @param LST local sidereal time at the start of the day
+	 * @param steps steps of the track
+	 */
+	private void scanSteps(double S, double C, int count, double LST, int steps) {
+		// hours and sidereal angle of a step
+		double stepHours = HOURS_IN_DAY / (double) steps;
+		double K = K1*stepHours;
+
+		// S*sin(d) + C*cos(d)*cos(H) is between S*sin(d) - C*cos(d) and S*sin(d) + C*cos(d) (also after round off),
+		// so when no horizon is between the extremes of the points of the track the body cannot cross any of them
+		double highest = -2, lowest = 2;
+		for (int i = 0; i <= steps; i++) {
+			highest = Math.max(highest, S*sinDeclination[i] + C*cosDeclination[i]);
+			lowest = Math.min(lowest, S*sinDeclination[i] - C*cosDeclination[i]);
+		}
+		boolean circumpolar = true;
+		for (int k = 0; k < count; k++) {
+			circumpolar = circumpolar && (highest < horizons[k] || lowest > horizons[k]);
+		}
+		if (circumpolar) {
+			double L2 = LST + (steps-1)*K + K;
+			lastBase = S*sinDeclination[steps] + C*cosDeclination[steps]*Math.cos(L2 - ascention[steps]);
+			return;
+		}
+
+		double L0 = LST;
+		double H0 = L0 - ascention[0];
+		// V = base - Z
+		double previousBase = S*sinDeclination[0] + C*cosDeclination[0]*Math.cos(H0);
+
+		for(int step=0; step<steps; step++) {
+			L0 = LST + step*K;
+			double L2 = L0 + K;
+			H0 = L0 - ascention[step];
+			double H2 = L2 - ascention[step+1];
+
+			double base = S*sinDeclination[step+1] + C*cosDeclination[step+1]*Math.cos(H2);
+			double H1 = 0, base1 = 0;
+			boolean halfHour = false;
+
+			for (int k = 0; k < count; k++) {
+				double previousV = previousBase - horizons[k];
+				double V = base - horizons[k];
+				if ((previousV > 0) == (V > 0)) {
+					continue;
+				}
+				if (!halfHour) {
+					H1 = (H2+H0) / 2.0; //  Hour angle,
+					base1 = S*sinHalfDeclination[step] + C*cosHalfDeclination[step]*Math.cos(H1);
+					halfHour = true;
+				}
+				double V1 = base1 - horizons[k];
+
+				double A = 2*V - 4*V1 + 2*previousV;
+				double B = 4*V1 - 3*previousV - V;
+				double D = B*B - 4*A*previousV;
+
+				if (D >= 0) {
+					D = Math.sqrt(D);
+
+					double E = (-B+D) / (2*A);
+					if (E>1 || E<0) {
+						E = (-B-D) / (2*A);
+					}
+
+					double H7 = H0 + E*(H2-H0);
+					double N7 = -1 * cosHalfDeclination[step]*Math.sin(H7);
+					double D7 = C*sinHalfDeclination[step] - S*cosHalfDeclination[step]*Math.cos(H7);
+					double azimuth = Math.atan(N7/D7)/DR;
+
+					if(D7 < 0) {
+						azimuth = azimuth+180;
+					}
+					if(azimuth < 0) {
+						azimuth = azimuth+360;
+					}
+					if(azimuth > 360) {
+						azimuth = azimuth-360;
+					}
+
+					// same truncation as testHourForEvent (its 1/120 round off is an integer division)
+					double T3 = (step + E)*stepHours;
+					int hour = (int) T3;
+					int min = (int) ((T3-hour)*60);
+					double fraction = refinement > 0 ? refine(S, C, horizons[k], LST, step / (double) steps, 
+							(step+1) / (double) steps, T3 / HOURS_IN_DAY) : T3 / HOURS_IN_DAY;
+
+					if (previousV<0 && V>0) {
+						riseMinute[k] = hour*60 + min;
+						riseAzimuth[k] = azimuth;
+						riseFraction[k] = fraction;
+					}
+					if (previousV>0 && V<0) {
+						setMinute[k] = hour*60 + min;
+						setAzimuth[k] = azimuth;
+						setFraction[k] = fraction;
+					}
+				}
+			}
+			previousBase = base;
+		}
+		lastBase = previousBase;
+	}
+
+	/**
+	 * Crossings of the horizons from the closed form hour angle (cos H0 = (Z - S*sin(d)) / (C*cos(d)) at the
+	 * declination of the middle of the day), each one refined by Newton iterations on the interpolated track.
+	 * A horizon out of the range of altitudes of the body over the day has no crossing and is not solved.
+	 * @param S sine of the latitude
+	 * @param C cosine of the latitude
+	 * @param count number of horizons
+	 * @param LST local sidereal time at the start of the day
+	 * @return false when a horizon is only crossed because of the change of declination over the day
+	 * (|cos H0| &gt; 1 at the middle of the day), nothing is solved then
+	 */
+	private boolean solve(double S, double C, int count, double LST) {
+		double declination = todayDeclination + changeInDeclination;
+		double startHourAngle = LST - todayAscention;
+		// change of the hour angle over the day
+		double W = HOURS_IN_DAY*K1 - changeInAscention;
+		lastBase = S*Math.sin(declination) + C*Math.cos(declination)*Math.cos(startHourAngle + W);
+
+		// highest and lowest altitude (cos(latitude - d) and -cos(latitude + d)) over the declinations of the day
+		double latitude = Math.atan2(S, C);
+		double minDeclination = Math.min(todayDeclination, declination);
+		double maxDeclination = Math.max(todayDeclination, declination);
+		double highest = Math.cos(latitude - Math.max(minDeclination, Math.min(maxDeclination, latitude)));
+		double lowest = -Math.cos(latitude + Math.max(minDeclination, Math.min(maxDeclination, -latitude)));
+
+		double middleDeclination = todayDeclination + changeInDeclination/2;
+		double sinMiddle = Math.sin(middleDeclination);
+		double cosMiddle = Math.cos(middleDeclination);
+		for (int k = 0; k < count; k++) {
+			if (highest < horizons[k] || lowest > horizons[k]) {
+				continue;
+			}
+			double cosH0 = (horizons[k] - S*sinMiddle) / (C*cosMiddle);
+			if (!(cosH0 >= -1 && cosH0 <= 1)) {
+				return false;
+			}
+		}
+
+		for (int k = 0; k < count; k++) {
+			if (highest < horizons[k] || lowest > horizons[k]) {
+				continue;
+			}
+			double H0 = Math.acos((horizons[k] - S*sinMiddle) / (C*cosMiddle));
+			for (int event = 0; event < 2; event++) {
+				boolean rise = event == 0;
+				// fractions of the day with the hour angle of the event (-H0 for the rise), once per turn, from a
+				// quarter of a day before to a quarter after it, as the track can move a crossing across the start or the end
+				double target = (rise ? -H0 : H0) - startHourAngle;
+				double turn = 2*Math.PI / W;
+				double t = (target - 2*Math.PI*Math.floor(target / (2*Math.PI))) / W;
+				t = t - turn*Math.floor((t + SOLVE_MARGIN) / turn);
+				for (; t < 1 + SOLVE_MARGIN; t += turn) {
+					double root = t, change = 0;
+					for (int i = 0; i < NEWTON_ITERATIONS; i++) {
+						double d = todayDeclination + root*changeInDeclination;
+						double H = startHourAngle + root*W;
+						double sinD = Math.sin(d), cosD = Math.cos(d), cosH = Math.cos(H);
+						double V = S*sinD + C*cosD*cosH - horizons[k];
+						double dV = changeInDeclination*(S*cosD - C*sinD*cosH) - W*C*cosD*Math.sin(H);
+						change = V/dV;
+						root = root - change;
+					}
+					if (!(Math.abs(change) <= NEWTON_TOLERANCE)) {
+						return false;
+					}
+					if (root < 0 || root >= 1) {
+						continue;
+					}
+					double d = todayDeclination + root*changeInDeclination;
+					double H = startHourAngle + root*W;
+					double N7 = -1 * Math.cos(d)*Math.sin(H);
+					double D7 = C*Math.sin(d) - S*Math.cos(d)*Math.cos(H);
+					double azimuth = Math.atan(N7/D7)/DR;
+					if(D7 < 0) {
+						azimuth = azimuth+180;
+					}
+					if(azimuth < 0) {
+						azimuth = azimuth+360;
+					}
+					if(azimuth > 360) {
+						azimuth = azimuth-360;
+					}
+
+					// same truncation as the scan
+					double T3 = root*HOURS_IN_DAY;
+					int hour = (int) T3;
+					int min = (int) ((T3-hour)*60);
+					if (rise) {
+						riseMinute[k] = hour*60 + min;
+						riseAzimuth[k] = azimuth;
+						riseFraction[k] = root;
+					} else {
+						setMinute[k] = hour*60 + min;
+						setAzimuth[k] = azimuth;
+						setFraction[k] = root;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Brent iterations on the altitude of the interpolated track within the step of a crossing of the scan,
+	 * one evaluation of the altitude per iteration (and two for the bracket)
+	 * @param S sine of the latitude
+	 * @param C cosine of the latitude
+	 * @param Z value of the horizon
+	 * @param LST local sidereal time at the start of the day
+	 * @param a fraction of the day at the start of the step
+	 * @param b fraction of the day at the end of the step
+	 * @param estimate fraction of the day of the quadratic fit, kept when the step does not bracket the crossing
+	 * (the scan and the track differ in the last bits)
+	 * @return fraction of the day of the crossing
+	 */
+	private double refine(double S, double C, double Z, double LST, double a, double b, double estimate) {
+		double fa = altitude(S, C, LST, a) - Z;
+		double fb = altitude(S, C, LST, b) - Z;
+		if ((fa > 0) == (fb > 0)) {
+			return estimate;
+		}
+		double c = a, fc = fa;
+		double d = b - a, e = d;
+		for (int i = 0; i < refinement; i++) {
+			if ((fb > 0) == (fc > 0)) {
+				c = a;
+				fc = fa;
+				d = b - a;
+				e = d;
+			}
+			if (Math.abs(fc) < Math.abs(fb)) {
+				a = b;
+				b = c;
+				c = a;
+				fa = fb;
+				fb = fc;
+				fc = fa;
+			}
+			double tolerance = REFINEMENT_TOLERANCE / 2;
+			double middle = (c - b) / 2;
+			if (Math.abs(middle) <= tolerance || fb == 0) {
+				break;
+			}
+			if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+				// secant or inverse quadratic interpolation
+				double s = fb / fa, p, q;
+				if (a == c) {
+					p = 2*middle*s;
+					q = 1 - s;
+				} else {
+					double r = fb / fc;
+					q = fa / fc;
+					p = s*(2*middle*q*(q - r) - (b - a)*(r - 1));
+					q = (q - 1)*(r - 1)*(s - 1);
+				}
+				if (p > 0) {
+					q = -q;
+				} else {
+					p = -p;
+				}
+				if (2*p < Math.min(3*middle*q - Math.abs(tolerance*q), Math.abs(e*q))) {
+					e = d;
+					d = p / q;
+				} else {
+					d = middle;
+					e = d;
+				}
+			} else {
+				// bisection
+				d = middle;
+				e = d;
+			}
+			a = b;
+			fa = fb;
+			b += Math.abs(d) > tolerance ? d : (middle > 0 ? tolerance : -tolerance);
+			fb = altitude(S, C, LST, b) - Z;
+		}
+		return b;
+	}
+
+	/**
+	 * Altitude (S*sin(d) + C*cos(d)*cos(H)) of the body on the track interpolated at a fraction of the day
+	 * @param S sine of the latitude
+	 * @param C cosine of the latitude
+	 * @param LST local sidereal time at the start of the day
+	 * @param t fraction of the day
+	 * @return base value of the scan at t
+	 */
+	private double altitude(double S, double C, double LST, double t) {
+		double declination = todayDeclination + t*changeInDeclination;
+		double H = LST + t*HOURS_IN_DAY*K1 - (todayAscention + t*changeInAscention);
+		return S*Math.sin(declination) + C*Math.cos(declination)*Math.cos(H);
+	}
+
+	/**
+	 * @param k index of the horizon
+	 * @return minute of day of the rise of the last scan or {@link #NONE}
+	 */
+	int getRiseMinute(int k) {
+		return riseMinute[k];
+	}
+
+	/**
+	 * @param k index of the horizon
+	 * @return minute of day of the set of the last scan or {@link #NONE}
+	 */
+	int getSetMinute(int k) {
+		return setMinute[k];
+	}
+
+	/**
+	 * @param k index of the horizon
+	 * @return fraction of the day of the rise of the last scan (not truncated to the minute) or NaN
+	 */
+	double getRiseFraction(int k) {
+		return riseFraction[k];
+	}
+
+	/**
+	 * @param k index of the horizon
+	 * @return fraction of the day of the set of the last scan (not truncated to the minute) or NaN
+	 */
+	double getSetFraction(int k) {
+		return setFraction[k];
+	}
+
+	/**
+	 * Set the Brent iterations of each crossing of the next scans (the closed form solution is already
+	 * refined by its Newton iterations)
+	 * @param refinement iterations, 0 to keep the crossings of the quadratic fit of the scan
+	 */
+	void setRefinement(int refinement) {
+		this.refinement = refinement;
+	}
+
+	double getRiseAzimuth(int k) {
+		return riseAzimuth[k];
+	}
+
+	double getSetAzimuth(int k) {
+		return setAzimuth[k];
+	}
+
+	/**
+	 * @param k index of the horizon
+	 * @return V value at the end of the day, negative when the body is below the horizon
+	 */
+	double getLastV(int k) {
+		return lastBase - horizons[k];
+	}
+
+	/**
+	 * Type of day of the last scan, as {@link Calculator#findTypeOfDay}
+	 * @param k index of the horizon
+	 * @return Event.HorizonToHorizonCrossing
+	 */
+	Event.HorizonToHorizonCrossing getType(int k) {
+		if(riseMinute[k] == NONE && setMinute[k] == NONE) {
+			return getLastV(k) < 0 ? Event.HorizonToHorizonCrossing.NO_CHANGE_PREVIOUSLY_SET
+					: Event.HorizonToHorizonCrossing.NO_CHANGE_PREVIOUSLY_RISEN;
+		} else if(riseMinute[k] == NONE) {
+			return Event.HorizonToHorizonCrossing.ONLY_SET;
+		} else if(setMinute[k] == NONE) {
+			return Event.HorizonToHorizonCrossing.ONLY_RISEN;
+		} else {
+			return Event.HorizonToHorizonCrossing.RISEN_AND_SET;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.util.TimeZone;
+
+/**
+ * Conversions between dates, epoch days (days since 1970-01-01) and Julian days over primitives, without
+ * {@link java.util.Calendar} or the deprecated constructors of {@link java.util.Date}.
+ *
+ * <p>The dates are those of the fields of a {@link java.util.GregorianCalendar}: of the Julian calendar before
+ * 1582-10-15 and of the Gregorian calendar after it, with months from 1 to 12. A day out of its month carries
+ * over to the next months, as in a lenient calendar. The instant of a time of day in a time zone is resolved as
+ * the calendar does it: a time skipped by a change of daylight saving time is read with the offset before the
+ * change, and a repeated time is the second one.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+final class JulianDay {
+	/**
+	 * {@value #UNIX_EPOCH_JULIAN_DAY} Julian day number of 1970-01-01
+	 */
+	static final long UNIX_EPOCH_JULIAN_DAY = 2440588L;
+	/**
+	 * {@value #J2000_EPOCH_DAY} Epoch day of 2000-01-01
+	 */
+	static final long J2000_EPOCH_DAY = 10957L;
+	/**
+	 * {@value #MILLIS_IN_DAY}
+	 */
+	static final long MILLIS_IN_DAY = 86400000L;
+	/**
+	 * {@value #MILLIS_IN_HOUR}
+	 */
+	static final long MILLIS_IN_HOUR = 3600000L;
+	/**
+	 * Epoch day of 1582-10-15, the first day of the Gregorian calendar
+	 */
+	private static final long GREGORIAN_CUTOVER_EPOCH_DAY = -141427L;
+
+	private JulianDay() {
+	}
+
+	/**
+	 * Epoch day of a date of the calendar (Julian before 1582-10-15, Gregorian after)
+	 * @param year year
+	 * @param month month (1 to 12)
+	 * @param day day of month
+	 * @return days since 1970-01-01
+	 */
+	static long epochDay(int year, int month, int day) {
+		long gregorian = gregorianEpochDay(year, month, day);
+		return gregorian >= GREGORIAN_CUTOVER_EPOCH_DAY ? gregorian : julianEpochDay(year, month, day);
+	}
+
+	/**
+	 * Epoch day of a date of the proleptic Gregorian calendar, as {@link java.time.LocalDate#toEpochDay()}
+	 * @param year year
+	 * @param month month (1 to 12)
+	 * @param day day of month
+	 * @return days since 1970-01-01
+	 */
+	static long gregorianEpochDay(int year, int month, int day) {
+		long a = (14 - month) / 12;
+		long y = year + 4800L - a;
+		long m = month + 12 * a - 3;
+		return day + (153 * m + 2) / 5 + 365 * y + Math.floorDiv(y, 4) - Math.floorDiv(y, 100) + Math.floorDiv(y, 400)
+				- 32045 - UNIX_EPOCH_JULIAN_DAY;
+	}
+
+	/**
+	 * Epoch day of a date of the Julian calendar
+	 * @param year year
+	 * @param month month (1 to 12)
+	 * @param day day of month
+	 * @return days since 1970-01-01
+	 */
+	static long julianEpochDay(int year, int month, int day) {
+		long a = (14 - month) / 12;
+		long y = year + 4800L - a;
+		long m = month + 12 * a - 3;
+		return day + (153 * m + 2) / 5 + 365 * y + Math.floorDiv(y, 4) - 32083 - UNIX_EPOCH_JULIAN_DAY;
+	}
+
+	/**
+	 * Truncated Julian date of a day, the Julian day at its midnight minus 0.5, by the formula of
+	 * {@link Calculator#calculateJulianDate(java.util.Calendar)}. The dates before 1583 are read in the Julian 
+	 * calendar. After that, the century correction of the formula is taken from the year itself, so January
+	 * and February of the Gregorian non-leap century years (1700, 1800, 1900, 2100, 2200...) come out one day 
+	 * less than the Gregorian calendar. This is kept, those results are the ones of the library.
+	 * @param year year
+	 * @param month month (1 to 12)
+	 * @param day day of month
+	 * @return truncated Julian date
+	 */
+	static int truncatedJulianDate(int year, int month, int day) {
+		if (year < 1583) {
+			return (int) (julianEpochDay(year, month, day) + UNIX_EPOCH_JULIAN_DAY - 1);
+		}
+		int julianDate = -1 * (7 * (((month+9)/12)+year) / 4);
+		int offset = -1 * ((year/100) +1) * 3/4;
+		julianDate = julianDate + (275*month/9) + day + offset;
+		return julianDate + 1721027 + 2 + 367*year - 1;
+	}
+
+	/**
+	 * Days since J2000.0 (2000-01-01 12h) of a time of a date of the proleptic Gregorian calendar
+	 * @param year year
+	 * @param month month (1 to 12)
+	 * @param day day of month
+	 * @param dayFraction fraction of the day since midnight
+	 * @return days since J2000.0
+	 */
+	static double daysSinceJ2000(int year, int month, int day, double dayFraction) {
+		return (gregorianEpochDay(year, month, day) - J2000_EPOCH_DAY) - 0.5 + dayFraction;
+	}
+
+	/**
+	 * Instant of a time of day of a date in a time zone, resolved as {@link java.util.GregorianCalendar}
+	 * @param zone time zone
+	 * @param epochDay days since 1970-01-01 of the date
+	 * @param millisOfDay milliseconds since midnight of the time of day
+	 * @return milliseconds since 1970-01-01T00:00Z
+	 */
+	static long toMillis(TimeZone zone, long epochDay, long millisOfDay) {
+		long local = epochDay * MILLIS_IN_DAY + millisOfDay;
+		// offsets at the ends of the instants the local time can be (offsets from -12h to +14h)
+		int before = zone.getOffset(local - 14 * MILLIS_IN_HOUR);
+		int after = zone.getOffset(local + 12 * MILLIS_IN_HOUR);
+		if (zone.getOffset(local - after) == after) {
+			return local - after;
+		}
+		if (zone.getOffset(local - before) == before) {
+			return local - before;
+		}
+		// skipped by a change, read with the offset before the change
+		return local - Math.min(before, after);
+	}
+
+	/**
+	 * Time of day of an instant in a time zone
+	 * @param zone time zone
+	 * @param millis milliseconds since 1970-01-01T00:00Z
+	 * @return milliseconds since midnight
+	 */
+	static long millisOfDay(TimeZone zone, long millis) {
+		return Math.floorMod(millis + zone.getOffset(millis), MILLIS_IN_DAY);
+	}
+}
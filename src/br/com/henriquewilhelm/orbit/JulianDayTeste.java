@@ -0,0 +1,161 @@
+package br.com.henriquewilhelm.orbit;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Classe of Test App for the conversions of {@link JulianDay}: the truncated Julian dates and the days since
+ * J2000.0 are compared with the legacy formulas of {@link Calculator#calculateJulianDate(Calendar)} and of
+ * BasicCalculator, the epoch days and the instants of wall times with {@link GregorianCalendar}.
+ * Exits with status 1 on any mismatch.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public class JulianDayTeste {
+	/**
+	 * {@value #FIRST_YEAR} First year of the dates
+	 */
+	private static final int FIRST_YEAR = 1;
+	/**
+	 * {@value #LAST_YEAR} Last year of the dates
+	 */
+	private static final int LAST_YEAR = 9999;
+	/**
+	 * Zones of the wall times, around each of their transitions from 1900 to 2037
+	 */
+	private static final String[] ZONES = { "America/Sao_Paulo", "America/Chicago", "America/New_York",
+			"America/St_Johns", "Europe/Berlin", "Europe/London", "Asia/Kolkata", "Australia/Sydney",
+			"Australia/Lord_Howe", "Pacific/Auckland", "UTC" };
+	/**
+	 * {@value #QUARTERS} Quarters of hour tested before and after each transition
+	 */
+	private static final int QUARTERS = 12;
+
+	/**
+	 * Main of Test App for the conversions of JulianDay
+	 * @param args String args
+	 */
+	public static void main(String[] args) {
+		int failures = 0;
+		GregorianCalendar utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		int dates = 0, julianDates = 0, epochDays = 0, daysSinceJ2000 = 0;
+		for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+			for (int month = 1; month <= 12; month++) {
+				for (int day = 1; day <= 31; day++) {
+					dates++;
+					if (JulianDay.truncatedJulianDate(year, month, day) != legacyJulianDate(year, month, day)) {
+						julianDates++;
+					}
+					utc.clear();
+					utc.set(year, month - 1, day);
+					if (JulianDay.epochDay(year, month, day) != Math.floorDiv(utc.getTimeInMillis(), JulianDay.MILLIS_IN_DAY)) {
+						epochDays++;
+					}
+					double dayFraction = (day * 7 % 24) / 24.0;
+					if (year >= 1583 && day <= 28
+							&& JulianDay.daysSinceJ2000(year, month, day, dayFraction) != legacyDaysSinceJ2000(year, month, day, dayFraction)) {
+						daysSinceJ2000++;
+					}
+				}
+			}
+		}
+		System.out.printf("**%d dates: %d truncated Julian dates, %d epoch days and %d days since J2000 differ****\n",
+				dates, julianDates, epochDays, daysSinceJ2000);
+		failures += julianDates + epochDays + daysSinceJ2000;
+
+		int times = 0, instants = 0;
+		for (String id : ZONES) {
+			TimeZone zone = TimeZone.getTimeZone(id);
+			GregorianCalendar calendar = new GregorianCalendar(zone);
+			ZoneRules rules = ZoneId.of(id).getRules();
+			Instant instant = Instant.parse("1900-01-01T00:00:00Z");
+			Instant end = Instant.parse("2038-01-01T00:00:00Z");
+			for (ZoneOffsetTransition transition = rules.nextTransition(instant); transition != null
+					&& transition.getInstant().isBefore(end); transition = rules.nextTransition(transition.getInstant())) {
+				for (int quarter = -QUARTERS; quarter <= QUARTERS; quarter++) {
+					LocalDateTime time = transition.getDateTimeBefore().plusMinutes(15 * quarter);
+					calendar.clear();
+					calendar.set(time.getYear(), time.getMonthValue() - 1, time.getDayOfMonth(), time.getHour(),
+							time.getMinute());
+					long millisOfDay = (time.getHour() * 60 + time.getMinute()) * 60000L;
+					long millis = JulianDay.toMillis(zone, time.toLocalDate().toEpochDay(), millisOfDay);
+					times++;
+					if (millis != calendar.getTimeInMillis()) {
+						instants++;
+						System.out.printf("**%s %s: %s, expected %s****\n", id, time, Instant.ofEpochMilli(millis),
+								Instant.ofEpochMilli(calendar.getTimeInMillis()));
+					} else if (JulianDay.millisOfDay(zone, millis) != ((calendar.get(Calendar.HOUR_OF_DAY) * 60
+							+ calendar.get(Calendar.MINUTE)) * 60 + calendar.get(Calendar.SECOND)) * 1000L
+							+ calendar.get(Calendar.MILLISECOND)) {
+						instants++;
+						System.out.printf("**%s %s: time of day %d****\n", id, time, JulianDay.millisOfDay(zone, millis));
+					}
+				}
+			}
+		}
+		System.out.printf("**%d wall times around the transitions of %d zones: %d differ****\n", times, ZONES.length,
+				instants);
+		failures += instants;
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Truncated Julian date of the legacy {@link Calculator#calculateJulianDate(Calendar)}, as it was written
+	 * @param year year
+	 * @param month month (1 to 12)
+	 * @param day day of month
+	 * @return truncated Julian date
+	 */
+	private static int legacyJulianDate(int year, int month, int day) {
+		int julianDate = -1 * (int) ( 7 * (((month+9)/12)+year) / 4);
+		int offset = 0;
+		boolean after1583 = year >= 1583;
+		if(after1583) {
+			int S = sgn(month-9);
+			int A = Math.abs(month-9);
+			offset = year + S * (A/7);
+			offset = -1 * ( (offset/100) +1) * 3/4;
+		}
+		julianDate = julianDate + (275*month/9) + day + offset;
+		julianDate = julianDate + 1721027 + (after1583 ? 2 : 0) + 367*year;
+		julianDate--; //truncate
+		return julianDate;
+	}
+
+	/**
+	 * Sign of the legacy formula, 0 for negative values
+	 * @param val value
+	 * @return 1 or 0
+	 */
+	private static int sgn(double val) {
+		return val == 0 ? 0 : (val > 0 ? 1 : 0);
+	}
+
+	/**
+	 * Days since J2000.0 of the legacy BasicCalculator, as it was written
+	 * @param year year
+	 * @param month month (1 to 12)
+	 * @param day day of month
+	 * @param dayFraction fraction of the day since midnight
+	 * @return days since J2000.0
+	 */
+	private static double legacyDaysSinceJ2000(int year, int month, int day, double dayFraction) {
+		if ((month == 1) || (month == 2)) {
+			year = year - 1;
+			month = month + 12;
+		}
+		double a = Math.floor(year / 100);
+		double b = (2 - a + Math.floor(a / 4));
+		double c = Math.floor(365.25 * year);
+		double d = Math.floor(30.6001 * (month + 1)); // +1
+		return (b + c + d - 730550.5 + day + dayFraction);
+	}
+}
@@ -0,0 +1,404 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.util.Arrays;
+
+/**
+ * Periodic terms of the moon (Van Flandern &amp; Pulkkinen, 1979) used by {@link Calculator#calculateMoonPosition(double)},
+ * kept as tables of coefficients instead of one call of Math.sin or Math.cos per term.
+ *
+ * <p>Each term is an amplitude and the multiples of the fundamental arguments A (mean anomaly of the moon),
+ * B (argument of latitude), C (mean elongation), D (ascending node), F (mean anomaly of the sun) and
+ * P (16 times the mean longitude of the sun minus 18 times the mean longitude of Venus). The sine and cosine of
+ * each argument are computed once and their multiples by the angle addition formulas, so a position needs
+ * {@value #TRANSCENDENTAL_CALLS} calls of Math.sin and Math.cos instead of one per term. The values differ from
+ * the term by term series only in the last bits (less than 1e-12 rad). The terms below the threshold of an
+ * {@link Accuracy} are left out of its tables.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+final class LunarSeries {
+	/**
+	 * Index of the V, U and W series in the results of {@link #evaluate}
+	 */
+	static final int V = 0, U = 1, W = 2;
+	/**
+	 * {@value #ARGUMENTS} fundamental arguments of the terms (A, B, C, D, F and P)
+	 */
+	private static final int ARGUMENTS = 6;
+	/**
+	 * {@value #MAX_MULTIPLE} Largest multiple of an argument in the terms
+	 */
+	private static final int MAX_MULTIPLE = 4;
+	/**
+	 * {@value #MULTIPLES} Multiples of an argument, from -MAX_MULTIPLE to MAX_MULTIPLE
+	 */
+	private static final int MULTIPLES = 2*MAX_MULTIPLE + 1;
+	/**
+	 * {@value #TRANSCENDENTAL_CALLS} Calls of Math.sin and Math.cos per evaluation
+	 */
+	static final int TRANSCENDENTAL_CALLS = 2*ARGUMENTS;
+	/**
+	 * Column of the power of T (centuries since 1900) of a term
+	 */
+	private static final int CENTURIES = ARGUMENTS + 1;
+	/**
+	 * Terms of V (sine): amplitude, multiples of A, B, C, D, F, P and power of T
+	 */
+	private static final double[][] V_TERMS = {
+		{ .39558,  0,  1,  0,  1,  0,  0, 0}, // B+D
+		{ .08200,  0,  1,  0,  0,  0,  0, 0}, // B
+		{ .03257,  1, -1,  0, -1,  0,  0, 0}, // A-B-D
+		{ .01092,  1,  1,  0,  1,  0,  0, 0}, // A+B+D
+		{ .00666,  1, -1,  0,  0,  0,  0, 0}, // A-B
+		{-.00644,  1,  1, -2,  1,  0,  0, 0}, // A+B-2*C+D
+		{-.00331,  0,  1, -2,  1,  0,  0, 0}, // B-2*C+D
+		{-.00304,  0,  1, -2,  0,  0,  0, 0}, // B-2*C
+		{-.00240,  1, -1, -2, -1,  0,  0, 0}, // A-B-2*C-D
+		{ .00226,  1,  1,  0,  0,  0,  0, 0}, // A+B
+		{-.00108,  1,  1, -2,  0,  0,  0, 0}, // A+B-2*C
+		{-.00079,  0,  1,  0, -1,  0,  0, 0}, // B-D
+		{ .00078,  0,  1,  2,  1,  0,  0, 0}, // B+2*C+D
+		{ .00066,  0,  1,  0,  1, -1,  0, 0}, // B+D-F
+		{-.00062,  0,  1,  0,  1,  1,  0, 0}, // B+D+F
+		{-.00050,  1, -1, -2,  0,  0,  0, 0}, // A-B-2*C
+		{ .00045,  2,  1,  0,  1,  0,  0, 0}, // 2*A+B+D
+		{-.00031,  2,  1, -2,  1,  0,  0, 0}, // 2*A+B-2*C+D
+		{-.00027,  1,  1, -2,  1,  1,  0, 0}, // A+B-2*C+D+F
+		{-.00024,  0,  1, -2,  1,  1,  0, 0}, // B-2*C+D+F
+		{-.00021,  0,  1,  0,  1,  0,  0, 1}, // B+D, times T
+		{ .00018,  0,  1, -1,  1,  0,  0, 0}, // B-C+D
+		{ .00016,  0,  1,  2,  0,  0,  0, 0}, // B+2*C
+		{ .00016,  1, -1,  0, -1, -1,  0, 0}, // A-B-D-F
+		{-.00016,  2, -1,  0, -1,  0,  0, 0}, // 2*A-B-D
+		{-.00015,  0,  1, -2,  0,  1,  0, 0}, // B-2*C+F
+		{-.00012,  1, -1, -2, -1,  1,  0, 0}, // A-B-2*C-D+F
+		{-.00011,  1, -1,  0, -1,  1,  0, 0}, // A-B-D+F
+		{ .00009,  1,  1,  0,  1, -1,  0, 0}, // A+B+D-F
+		{ .00009,  2,  1,  0,  0,  0,  0, 0}, // 2*A+B
+		{ .00008,  2, -1,  0,  0,  0,  0, 0}, // 2*A-B
+		{ .00008,  1,  1,  2,  1,  0,  0, 0}, // A+B+2*C+D
+		{-.00008,  0,  3, -2,  1,  0,  0, 0}, // 3*B-2*C+D
+		{ .00007,  1, -1,  2,  0,  0,  0, 0}, // A-B+2*C
+		{-.00007,  2, -1, -2, -1,  0,  0, 0}, // 2*A-B-2*C-D
+		{-.00007,  1,  1,  0,  1,  1,  0, 0}, // A+B+D+F
+		{-.00006,  0,  1,  1,  1,  0,  0, 0}, // B+C+D
+		{ .00006,  0,  1, -2,  0, -1,  0, 0}, // B-2*C-F
+		{ .00006,  1, -1,  0,  1,  0,  0, 0}, // A-B+D
+		{ .00006,  0,  1,  2,  1, -1,  0, 0}, // B+2*C+D-F
+		{-.00005,  1,  1, -2,  0,  1,  0, 0}, // A+B-2*C+F
+		{-.00004,  2,  1, -2,  0,  0,  0, 0}, // 2*A+B-2*C
+		{ .00004,  1, -3,  0, -1,  0,  0, 0}, // A-3*B-D
+		{ .00004,  1, -1,  0,  0, -1,  0, 0}, // A-B-F
+		{-.00003,  1, -1,  0,  0,  1,  0, 0}, // A-B+F
+		{ .00003,  0,  1, -1,  0,  0,  0, 0}, // B-C
+		{ .00003,  0,  1, -2,  1, -1,  0, 0}, // B-2*C+D-F
+		{-.00003,  0,  1, -2, -1,  0,  0, 0}, // B-2*C-D
+		{ .00003,  1,  1, -2,  1, -1,  0, 0}, // A+B-2*C+D-F
+		{ .00003,  0,  1,  0,  0, -1,  0, 0}, // B-F
+		{-.00003,  0,  1, -1,  1, -1,  0, 0}, // B-C+D-F
+		{-.00002,  1, -1, -2,  0,  1,  0, 0}, // A-B-2*C+F
+		{-.00002,  0,  1,  0,  0,  1,  0, 0}, // B+F
+		{ .00002,  1,  1, -1,  1,  0,  0, 0}, // A+B-C+D
+		{-.00002,  1,  1,  0, -1,  0,  0, 0}, // A+B-D
+		{ .00002,  3,  1,  0,  1,  0,  0, 0}, // 3*A+B+D
+		{-.00002,  2, -1, -4, -1,  0,  0, 0}, // 2*A-B-4*C-D
+		{ .00002,  1, -1, -2, -1, -1,  0, 0}, // A-B-2*C-D-F
+		{-.00002,  1, -1,  0, -1,  0,  0, 1}, // A-B-D, times T
+		{-.00002,  1, -1, -4, -1,  0,  0, 0}, // A-B-4*C-D
+		{-.00002,  1,  1, -4,  0,  0,  0, 0}, // A+B-4*C
+		{-.00002,  2, -1, -2,  0,  0,  0, 0}, // 2*A-B-2*C
+		{ .00002,  1,  1,  2,  0,  0,  0, 0}, // A+B+2*C
+		{ .00002,  1,  1,  0,  0, -1,  0, 0}  // A+B-F
+	};
+	/**
+	 * Terms of U (cosine, plus 1): amplitude, multiples of A, B, C, D, F, P and power of T
+	 */
+	private static final double[][] U_TERMS = {
+		{-.10828,  1,  0,  0,  0,  0,  0, 0}, // A
+		{-.01880,  1,  0, -2,  0,  0,  0, 0}, // A-2*C
+		{-.01479,  0,  0,  2,  0,  0,  0, 0}, // 2*C
+		{ .00181,  2,  0, -2,  0,  0,  0, 0}, // 2*A-2*C
+		{-.00147,  2,  0,  0,  0,  0,  0, 0}, // 2*A
+		{-.00105,  0,  0,  2,  0, -1,  0, 0}, // 2*C-F
+		{-.00075,  1,  0, -2,  0,  1,  0, 0}, // A-2*C+F
+		{-.00067,  1,  0,  0,  0, -1,  0, 0}, // A-F
+		{ .00057,  0,  0,  1,  0,  0,  0, 0}, // C
+		{ .00055,  1,  0,  0,  0,  1,  0, 0}, // A+F
+		{-.00046,  1,  0,  2,  0,  0,  0, 0}, // A+2*C
+		{ .00041,  1, -2,  0,  0,  0,  0, 0}, // A-2*B
+		{ .00024,  0,  0,  0,  0,  1,  0, 0}, // F
+		{ .00017,  0,  0,  2,  0,  1,  0, 0}, // 2*C+F
+		{-.00013,  1,  0, -2,  0, -1,  0, 0}, // A-2*C-F
+		{-.00010,  1,  0, -4,  0,  0,  0, 0}, // A-4*C
+		{-.00009,  0,  0,  1,  0,  1,  0, 0}, // C+F
+		{ .00007,  2,  0, -2,  0,  1,  0, 0}, // 2*A-2*C+F
+		{ .00006,  3,  0, -2,  0,  0,  0, 0}, // 3*A-2*C
+		{ .00006,  0,  2, -2,  0,  0,  0, 0}, // 2*B-2*C
+		{-.00005,  0,  0,  2,  0, -2,  0, 0}, // 2*C-2*F
+		{-.00005,  2,  0, -4,  0,  0,  0, 0}, // 2*A-4*C
+		{ .00005,  1,  2, -2,  0,  0,  0, 0}, // A+2*B-2*C
+		{-.00005,  1,  0, -1,  0,  0,  0, 0}, // A-C
+		{-.00004,  1,  0,  2,  0, -1,  0, 0}, // A+2*C-F
+		{-.00004,  3,  0,  0,  0,  0,  0, 0}, // 3*A
+		{-.00003,  1,  0, -4,  0,  1,  0, 0}, // A-4*C+F
+		{-.00003,  2, -2,  0,  0,  0,  0, 0}, // 2*A-2*B
+		{-.00003,  0,  2,  0,  0,  0,  0, 0}  // 2*B
+	};
+	/**
+	 * Terms of W (sine): amplitude, multiples of A, B, C, D, F, P and power of T
+	 */
+	private static final double[][] W_TERMS = {
+		{ .10478,  1,  0,  0,  0,  0,  0, 0}, // A
+		{-.04105,  0,  2,  0,  2,  0,  0, 0}, // 2*B+2*D
+		{-.02130,  1,  0, -2,  0,  0,  0, 0}, // A-2*C
+		{-.01779,  0,  2,  0,  1,  0,  0, 0}, // 2*B+D
+		{ .01774,  0,  0,  0,  1,  0,  0, 0}, // D
+		{ .00987,  0,  0,  2,  0,  0,  0, 0}, // 2*C
+		{-.00338,  1, -2,  0, -2,  0,  0, 0}, // A-2*B-2*D
+		{-.00309,  0,  0,  0,  0,  1,  0, 0}, // F
+		{-.00190,  0,  2,  0,  0,  0,  0, 0}, // 2*B
+		{-.00144,  1,  0,  0,  1,  0,  0, 0}, // A+D
+		{-.00144,  1, -2,  0, -1,  0,  0, 0}, // A-2*B-D
+		{-.00113,  1,  2,  0,  2,  0,  0, 0}, // A+2*B+2*D
+		{-.00094,  1,  0, -2,  0,  1,  0, 0}, // A-2*C+F
+		{-.00092,  2,  0, -2,  0,  0,  0, 0}, // 2*A-2*C
+		{ .00071,  0,  0,  2,  0, -1,  0, 0}, // 2*C-F
+		{ .00070,  2,  0,  0,  0,  0,  0, 0}, // 2*A
+		{ .00067,  1,  2, -2,  2,  0,  0, 0}, // A+2*B-2*C+2*D
+		{ .00066,  0,  2, -2,  1,  0,  0, 0}, // 2*B-2*C+D
+		{-.00066,  0,  0,  2,  1,  0,  0, 0}, // 2*C+D
+		{ .00061,  1,  0,  0,  0, -1,  0, 0}, // A-F
+		{-.00058,  0,  0,  1,  0,  0,  0, 0}, // C
+		{-.00049,  1,  2,  0,  1,  0,  0, 0}, // A+2*B+D
+		{-.00049,  1,  0,  0, -1,  0,  0, 0}, // A-D
+		{-.00042,  1,  0,  0,  0,  1,  0, 0}, // A+F
+		{ .00034,  0,  2, -2,  2,  0,  0, 0}, // 2*B-2*C+2*D
+		{-.00026,  0,  2, -2,  0,  0,  0, 0}, // 2*B-2*C
+		{ .00025,  1, -2, -2, -2,  0,  0, 0}, // A-2*B-2*C-2*D
+		{ .00024,  1, -2,  0,  0,  0,  0, 0}, // A-2*B
+		{ .00023,  1,  2, -2,  1,  0,  0, 0}, // A+2*B-2*C+D
+		{ .00023,  1,  0, -2, -1,  0,  0, 0}, // A-2*C-D
+		{ .00019,  1,  0,  2,  0,  0,  0, 0}, // A+2*C
+		{ .00012,  1,  0, -2,  0, -1,  0, 0}, // A-2*C-F
+		{ .00011,  1,  0, -2,  1,  0,  0, 0}, // A-2*C+D
+		{ .00011,  1, -2, -2, -1,  0,  0, 0}, // A-2*B-2*C-D
+		{-.00010,  0,  0,  2,  0,  1,  0, 0}, // 2*C+F
+		{ .00009,  1,  0, -1,  0,  0,  0, 0}, // A-C
+		{ .00008,  0,  0,  1,  0,  1,  0, 0}, // C+F
+		{-.00008,  0,  2,  2,  2,  0,  0, 0}, // 2*B+2*C+2*D
+		{-.00008,  0,  0,  0,  2,  0,  0, 0}, // 2*D
+		{-.00007,  0,  2,  0,  2, -1,  0, 0}, // 2*B+2*D-F
+		{ .00006,  0,  2,  0,  2,  1,  0, 0}, // 2*B+2*D+F
+		{-.00005,  1,  2,  0,  0,  0,  0, 0}, // A+2*B
+		{ .00005,  3,  0,  0,  0,  0,  0, 0}, // 3*A
+		{-.00005,  1,  0,  0,  0,  0,  1, 0}, // A+16*E-18*G
+		{-.00005,  2,  2,  0,  2,  0,  0, 0}, // 2*A+2*B+2*D
+		{ .00004,  0,  2,  0,  2,  0,  0, 1}, // 2*B+2*D, times T
+		{-.00004,  1, -2,  2,  0,  0,  0, 0}, // A-2*B+2*C
+		{-.00004,  1,  0, -4,  0,  0,  0, 0}, // A-4*C
+		{-.00004,  3,  0, -2,  0,  0,  0, 0}, // 3*A-2*C
+		{-.00004,  0,  2,  2,  1,  0,  0, 0}, // 2*B+2*C+D
+		{-.00004,  0,  0,  2, -1,  0,  0, 0}, // 2*C-D
+		{-.00003,  0,  0,  0,  0,  2,  0, 0}, // 2*F
+		{-.00003,  1,  0, -2,  0,  2,  0, 0}, // A-2*C+2*F
+		{ .00003,  0,  2, -2,  1,  1,  0, 0}, // 2*B-2*C+D+F
+		{-.00003,  0,  0,  2,  1, -1,  0, 0}, // 2*C+D-F
+		{ .00003,  2,  2, -2,  2,  0,  0, 0}, // 2*A+2*B-2*C+2*D
+		{ .00003,  0,  0,  2,  0, -2,  0, 0}, // 2*C-2*F
+		{-.00003,  2,  0, -2,  0,  1,  0, 0}, // 2*A-2*C+F
+		{ .00003,  1,  2, -2,  2,  1,  0, 0}, // A+2*B-2*C+2*D+F
+		{-.00003,  2,  0, -4,  0,  0,  0, 0}, // 2*A-4*C
+		{ .00002,  0,  2, -2,  2,  1,  0, 0}, // 2*B-2*C+2*D+F
+		{-.00002,  2,  2,  0,  1,  0,  0, 0}, // 2*A+2*B+D
+		{-.00002,  2,  0,  0, -1,  0,  0, 0}, // 2*A-D
+		{ .00002,  0,  0,  4,  0,  0,  0, 0}, // 4*C
+		{-.00002,  0,  2, -1,  2,  0,  0, 0}, // 2*B-C+2*D
+		{-.00002,  1,  2, -2,  0,  0,  0, 0}, // A+2*B-2*C
+		{-.00002,  2,  0,  0,  1,  0,  0, 0}, // 2*A+D
+		{-.00002,  2, -2,  0, -1,  0,  0, 0}, // 2*A-2*B-D
+		{ .00002,  1,  0,  2,  0, -1,  0, 0}, // A+2*C-F
+		{ .00002,  2,  0,  0,  0, -1,  0, 0}, // 2*A-F
+		{-.00002,  1,  0, -4,  0,  1,  0, 0}, // A-4*C+F
+		{ .00002,  1,  0,  0,  0,  0,  1, 1}, // A+16*E-18*G, times T
+		{-.00002,  1, -2,  0, -2, -1,  0, 0}, // A-2*B-2*D-F
+		{ .00002,  2, -2,  0, -2,  0,  0, 0}, // 2*A-2*B-2*D
+		{-.00002,  1,  0,  2,  1,  0,  0, 0}, // A+2*C+D
+		{-.00002,  1, -2,  2, -1,  0,  0, 0}  // A-2*B+2*C-D
+	};
+	/**
+	 * Terms of W (cosine): amplitude, multiples of A, B, C, D, F, P and power of T
+	 */
+	private static final double[][] W_COSINE_TERMS = {
+		{ .00004,  1,  0,  0,  0,  0,  1, 0}, // A+16*E-18*G
+		{ .00002,  1,  0,  0,  0,  0,  1, 1}  // A+16*E-18*G, times T
+	};
+
+	/**
+	 * Compiled tables, per {@link Accuracy}
+	 */
+	private static final Terms[] V_SERIES = compile(V_TERMS, false);
+	private static final Terms[] U_SERIES = compile(U_TERMS, true);
+	private static final Terms[] W_SERIES = compile(W_TERMS, false);
+	private static final Terms[] W_COSINE_SERIES = compile(W_COSINE_TERMS, true);
+	/**
+	 * Reusable buffers of each thread, rewritten by every evaluation: cosines and sines of the multiples of the
+	 * arguments and the sums of the series
+	 */
+	private static final ThreadLocal<double[][]> BUFFERS = ThreadLocal.withInitial(
+			() -> new double[][] { new double[ARGUMENTS*MULTIPLES], new double[ARGUMENTS*MULTIPLES], new double[3] });
+
+	private LunarSeries() {
+	}
+
+	/**
+	 * Evaluate the V, U and W series
+	 * @param A mean anomaly of the moon (radians)
+	 * @param B argument of latitude of the moon (radians)
+	 * @param C mean elongation of the moon (radians)
+	 * @param D longitude of the ascending node of the moon (radians)
+	 * @param F mean anomaly of the sun (radians)
+	 * @param P 16 times the mean longitude of the sun minus 18 times the mean longitude of Venus (radians)
+	 * @param T centuries since 1900
+	 * @param accuracy terms evaluated, see {@link Accuracy#getSeriesThreshold()}
+	 * @return buffer of the thread with the sums at {@link #V}, {@link #U} and {@link #W}, valid until the next
+	 * evaluation on the thread
+	 */
+	static double[] evaluate(double A, double B, double C, double D, double F, double P, double T, Accuracy accuracy) {
+		double[][] buffers = BUFFERS.get();
+		// cos(k*x) and sin(k*x) of each argument x, k = -MAX_MULTIPLE..MAX_MULTIPLE
+		double[] cos = buffers[0];
+		double[] sin = buffers[1];
+		double[] series = buffers[2];
+		multiples(0, A, cos, sin);
+		multiples(1, B, cos, sin);
+		multiples(2, C, cos, sin);
+		multiples(3, D, cos, sin);
+		multiples(4, F, cos, sin);
+		multiples(5, P, cos, sin);
+
+		int k = accuracy.ordinal();
+		series[V] = V_SERIES[k].sum(T, cos, sin, 0);
+		series[U] = U_SERIES[k].sum(T, cos, sin, 1);
+		series[W] = W_COSINE_SERIES[k].sum(T, cos, sin, W_SERIES[k].sum(T, cos, sin, 0));
+		return series;
+	}
+
+	/**
+	 * Compile a table for each accuracy
+	 * @param terms table of terms
+	 * @param cosine true for a series of cosines, false for a series of sines
+	 * @return compiled terms, by ordinal of the accuracy
+	 */
+	private static Terms[] compile(double[][] terms, boolean cosine) {
+		Accuracy[] accuracies = Accuracy.values();
+		Terms[] ret = new Terms[accuracies.length];
+		for (Accuracy accuracy : accuracies) {
+			ret[accuracy.ordinal()] = new Terms(terms, cosine, accuracy);
+		}
+		return ret;
+	}
+
+	/**
+	 * Cosine and sine of the multiples of an argument by the angle addition formulas
+	 * @param argument index of the argument
+	 * @param x argument (radians)
+	 * @param cos cosines of the multiples of the arguments
+	 * @param sin sines of the multiples of the arguments
+	 */
+	private static void multiples(int argument, double x, double[] cos, double[] sin) {
+		int zero = argument*MULTIPLES + MAX_MULTIPLE;
+		double cosX = Math.cos(x);
+		double sinX = Math.sin(x);
+		cos[zero] = 1;
+		sin[zero] = 0;
+		for (int k = 1; k <= MAX_MULTIPLE; k++) {
+			cos[zero+k] = cos[zero+k-1]*cosX - sin[zero+k-1]*sinX;
+			sin[zero+k] = sin[zero+k-1]*cosX + cos[zero+k-1]*sinX;
+			cos[zero-k] = cos[zero+k];
+			sin[zero-k] = -sin[zero+k];
+		}
+	}
+
+	/**
+	 * Table of terms compiled to the indexes of the multiples of its arguments
+	 */
+	private static final class Terms {
+		private final double[] amplitude;
+		private final boolean[] centuries;
+		/**
+		 * Multiples of the term t are index[start[t]] to index[start[t+1]-1]
+		 */
+		private final int[] start;
+		private final int[] index;
+		/**
+		 * true for a series of cosines, false for a series of sines
+		 */
+		private final boolean cosine;
+
+		/**
+		 * Construtor of the terms of a table kept by an accuracy
+		 * @param terms table of terms
+		 * @param cosine true for a series of cosines, false for a series of sines
+		 * @param accuracy accuracy
+		 */
+		Terms(double[][] terms, boolean cosine, Accuracy accuracy) {
+			this.cosine = cosine;
+			int kept = 0;
+			for (double[] term : terms) {
+				if (accuracy.keeps(term[0])) {
+					kept++;
+				}
+			}
+			amplitude = new double[kept];
+			centuries = new boolean[kept];
+			start = new int[kept+1];
+			int[] indexes = new int[kept*ARGUMENTS];
+			int count = 0;
+			int t = 0;
+			for (double[] term : terms) {
+				if (!accuracy.keeps(term[0])) {
+					continue;
+				}
+				amplitude[t] = term[0];
+				centuries[t] = term[CENTURIES] != 0;
+				start[t] = count;
+				for (int argument = 0; argument < ARGUMENTS; argument++) {
+					int k = (int) term[argument+1];
+					if (k != 0) {
+						indexes[count++] = argument*MULTIPLES + MAX_MULTIPLE + k;
+					}
+				}
+				t++;
+			}
+			start[kept] = count;
+			index = Arrays.copyOf(indexes, count);
+		}
+
+		/**
+		 * Sum of the terms, in the order of the table
+		 * @param T centuries since 1900
+		 * @param cos cosines of the multiples of the arguments
+		 * @param sin sines of the multiples of the arguments
+		 * @param initial value added to the terms
+		 * @return sum
+		 */
+		double sum(double T, double[] cos, double[] sin, double initial) {
+			double sum = initial;
+			for (int t = 0; t < amplitude.length; t++) {
+				// cos + i sin of the argument of the term, product of the multiples of each argument
+				int i = index[start[t]];
+				double re = cos[i], im = sin[i];
+				for (int j = start[t]+1; j < start[t+1]; j++) {
+					i = index[j];
+					double r = re*cos[i] - im*sin[i];
+					im = im*cos[i] + re*sin[i];
+					re = r;
+				}
+				double a = centuries[t] ? amplitude[t]*T : amplitude[t];
+				sum += a * (cosine ? re : im);
+			}
+			return sum;
+		}
+	}
+}
@@ -38,6 +38,10 @@ public class MoonEvent extends Event implements Serializable  {
 	private String perigeeOrApogee;
 	
 	private double anglePhase;
+	/**
+	 * Julian ephemeris date and distance (km) of the perigee or apogee of the day, NaN without one
+	 */
+	private double apsisJulianDate = Double.NaN, apsisDistance = Double.NaN;
 	
 	private String eclipseType;
 	
@@ -91,6 +95,19 @@ public class MoonEvent extends Event implements Serializable  {
 		this.perigeeOrApogee = perigeeOrApogee;
 	}
 	
+	public double getApsisJulianDate() {
+		return apsisJulianDate;
+	}
+	public void setApsisJulianDate(double apsisJulianDate) {
+		this.apsisJulianDate = apsisJulianDate;
+	}
+	public double getApsisDistance() {
+		return apsisDistance;
+	}
+	public void setApsisDistance(double apsisDistance) {
+		this.apsisDistance = apsisDistance;
+	}
+	
 	public double getAnglePhase() {
 		return anglePhase;
 	}
@@ -112,6 +129,8 @@ public class MoonEvent extends Event implements Serializable  {
 		setSet(event.getSet());
 		setRiseAzimuth(event.getRiseAzimuth());
 		setSetAzimuth(event.getSetAzimuth());
+		setRiseEpochSecond(event.getRiseEpochSecond());
+		setSetEpochSecond(event.getSetEpochSecond());
 		setType(event.getType());
 		setMeridianCrossing(event.getMeridianCrossing());
 		setAntimeridianCrossing(event.getAntimeridianCrossing());
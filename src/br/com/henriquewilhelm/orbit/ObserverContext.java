@@ -0,0 +1,64 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.io.Serializable;
+
+/**
+ * Constants of an observer used by the rise and set calculation, computed once from the
+ * location: the sine and cosine of the latitude and the fraction of a turn of the longitude
+ * used by the LST. The Z value of each horizon is kept by its {@link Calculator.Offset}.
+ *
+ * <p>Immutable, so a context of a fixed site (e.g. a weather station) can be kept and shared
+ * by any number of requests, see {@link CalculationContext#CalculationContext(ObserverContext, java.util.Calendar)}.</p>
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public final class ObserverContext implements Serializable {
+	/**
+	 * serialVersionUID
+	 */
+	private static final long serialVersionUID = -2870361126830916417L;
+	/**
+	 * {@value #DR}
+	 */
+	private static final double DR = Math.PI/180.0; //degrees to radians constant
+	/**
+	 * Location of user
+	 */
+	private final GpsCoordinate gps;
+	/**
+	 * Sine and cosine of the latitude
+	 */
+	private final double sinLatitude, cosLatitude;
+	/**
+	 * Longitude in turns (longitude/360)
+	 */
+	private final double longitudeFraction;
+
+	/**
+	 * Construtor with the location of user
+	 * @param gps location of user
+	 */
+	public ObserverContext(GpsCoordinate gps) {
+		this.gps = gps;
+		this.sinLatitude = Math.sin(gps.getLatitude()*DR);
+		this.cosLatitude = Math.cos(gps.getLatitude()*DR);
+		this.longitudeFraction = gps.getLongitude()/360;
+	}
+
+	public GpsCoordinate getGps() {
+		return gps;
+	}
+
+	public double getSinLatitude() {
+		return sinLatitude;
+	}
+
+	public double getCosLatitude() {
+		return cosLatitude;
+	}
+
+	public double getLongitudeFraction() {
+		return longitudeFraction;
+	}
+}
@@ -41,7 +41,19 @@ public class OrbitCalculator {
 	private double DEGS = (180 / Math.PI); // convert radians to degrees
 	private double RADS = (Math.PI / 180); // convert degrees to radians
 	private double EPS = 1.0E-12; // machine error constant
+	private final int MAX_ITERATIONS = 50; // iterations of Kepler's equation, a tolerance below the precision of a double may not be reached
 	private final int CENTURIES = 36525;
+	/**
+	 * Components of the positions of {@link #computePositions(double, double, double[])}
+	 */
+	public static final int RIGHT_ASCENTION = 0;
+	public static final int DECLINATION = 1;
+	public static final int DISTANCE = 2;
+	public static final int COMPONENTS = 3;
+	/**
+	 * {@value #ELEMENTS} Elements of the solar system (0-8)
+	 */
+	public static final int ELEMENTS = 9;
 
 	public ArrayList<Event> getPlanetList() {
 		return planetList;
@@ -72,74 +84,236 @@ public class OrbitCalculator {
 	public ArrayList<Event> computeElementsPosition(double dt) {
 
 		Event obj;
-		Event objNext;
 		//System.out.println("Julian Date OF J2000 "+dt);
-		// compute location of objects
-		for (int i = 0; i < 9; i++) {
-			obj = get_coord(i, dt);
-			objNext = get_coord(i, dt+1);//+1 == Tomorrow
-			obj.setPositionTomorrow(objNext.getPosition());
-			if (i!=2)	//earth/sun
-			planetList.add(obj);
+		// compute location of objects, the Earth once per day
+		double[] positions = new double[ELEMENTS*COMPONENTS];
+		double[] positionsNext = new double[ELEMENTS*COMPONENTS];
+		computePositions(dt, EPS, positions);
+		computePositions(dt+1, EPS, positionsNext);//+1 == Tomorrow
+		for (int i = 0; i < ELEMENTS; i++) {
+			if (i!=2) {	//earth/sun
+				obj = new Event();
+				obj.setName(name[i]);
+				obj.setPosition(toPosition(positions, i));
+				obj.setPositionTomorrow(toPosition(positionsNext, i));
+				planetList.add(obj);
+			}
 		}
 		return planetList;
 	}
 
+	/**
+	 * This method computes the position of one element of the solar system
+	 * @param element (0-8 int value) of element of solar system 
+	 * @param dt value of current dateTime since 2000
+	 * @return Position of the element
+	 */
+	public Position computeElementPosition(int element, double dt) {
+		return get_coord(element, dt, EPS).getPosition();
+	}
+
+	/**
+	 * This method computes the position of one element of the solar system with a tolerance of Kepler's equation
+	 * @param element (0-8 int value) of element of solar system 
+	 * @param dt value of current dateTime since 2000
+	 * @param tolerance change of the eccentric anomaly (radians) that ends the iteration, see {@link Accuracy#getKeplerTolerance()}
+	 * @return Position of the element
+	 */
+	public Position computeElementPosition(int element, double dt, double tolerance) {
+		return get_coord(element, dt, tolerance).getPosition();
+	}
+
+	/**
+	 * This method computes the right ascension, declination and distance of all the elements at an epoch into a 
+	 * primitive array, without any Event. The Earth is solved once and every element is computed against it.
+	 * The element 2 (Earth) gives the sun.
+	 * @param dt value of current dateTime since 2000
+	 * @param tolerance change of the eccentric anomaly (radians) that ends the iteration, see {@link Accuracy#getKeplerTolerance()}
+	 * @param positions out, component c of element i at positions[i*COMPONENTS + c] (c is {@link #RIGHT_ASCENTION},
+	 * {@link #DECLINATION} or {@link #DISTANCE}), at least ELEMENTS*COMPONENTS values
+	 */
+	public void computePositions(double dt, double tolerance, double[] positions) {
+		Coordinates coords = new Coordinates();
+		double[] earth = new double[2];
+		earth(coords, dt, tolerance, earth);
+		for (int element = 0; element < ELEMENTS; element++) {
+			geocentric(coords, element, dt, tolerance, earth[0], earth[1], positions, element*COMPONENTS);
+		}
+	}
+
+	/**
+	 * Position of an element from the array of {@link #computePositions(double, double, double[])}
+	 * @param positions positions of the elements
+	 * @param element (0-8 int value) of element of solar system 
+	 * @return new Position
+	 */
+	public Position toPosition(double[] positions, int element) {
+		double rightAscention = positions[element*COMPONENTS + RIGHT_ASCENTION];
+		return new Position(rightAscention, positions[element*COMPONENTS + DECLINATION], rightAscention*DEGS, 
+				positions[element*COMPONENTS + DISTANCE]);
+	}
+
+	/**
+	 * This method computes the positions of all the elements over a range of epochs (e.g. a planetary table
+	 * of a decade) into a primitive array. Kepler's equation of the 9 orbits is solved by a {@link KeplerSolver}
+	 * with a fixed budget of iterations, each epoch warm started from the previous one.
+	 * @param fromDt first dateTime since 2000
+	 * @param stepDays days between the epochs
+	 * @param epochs number of epochs
+	 * @param solver solver of Kepler's equation, e.g. new KeplerSolver(3) for daily steps
+	 * @param positions out, component c of element i at epoch k at positions[(k*ELEMENTS + i)*COMPONENTS + c],
+	 * at least epochs*ELEMENTS*COMPONENTS values
+	 * @return largest residual of Kepler's equation of the table (radians)
+	 */
+	public double computePositions(double fromDt, double stepDays, int epochs, KeplerSolver solver, double[] positions) {
+		if (positions.length < epochs*ELEMENTS*COMPONENTS) {
+			throw new IllegalArgumentException("Positions must have at least " + epochs*ELEMENTS*COMPONENTS + " values");
+		}
+		Coordinates[] coords = new Coordinates[ELEMENTS];
+		for (int i = 0; i < ELEMENTS; i++) {
+			coords[i] = new Coordinates();
+		}
+		double[] meanAnomalies = new double[ELEMENTS];
+		double[] eccentricities = new double[ELEMENTS];
+		double[] eccentricAnomalies = new double[ELEMENTS];
+		double[] trueAnomalies = new double[ELEMENTS];
+		double[] earth = new double[2];
+		double maxResidual = 0;
+		for (int k = 0; k < epochs; k++) {
+			double dt = fromDt + k*stepDays;
+			for (int i = 0; i < ELEMENTS; i++) {
+				mean_elements(coords[i], i, dt);
+				meanAnomalies[i] = mod2pi(coords[i].getL() - coords[i].getW());
+				eccentricities[i] = coords[i].getE();
+			}
+			maxResidual = Math.max(maxResidual, solver.solve(meanAnomalies, eccentricities, eccentricAnomalies, ELEMENTS, k > 0));
+			solver.trueAnomalies(eccentricities, eccentricAnomalies, trueAnomalies, ELEMENTS);
+			earth(coords[2], trueAnomalies[2], earth);
+			for (int i = 0; i < ELEMENTS; i++) {
+				int offset = (k*ELEMENTS + i)*COMPONENTS;
+				if (i == 2) { // earth --> compute sun
+					geocentric(0, 0, 0, earth[0], earth[1], positions, offset);
+				} else {
+					geocentric(coords[i], trueAnomalies[i], earth[0], earth[1], positions, offset);
+				}
+			}
+		}
+		return maxResidual;
+	}
+
 	/**
 	 *  compute RA, DEC, Longitude Ecliptical and distance of element for day number-dt
 	 *  result returned in structure obj in degrees and astronomical units
 	 *  @param element (0-9 int value) of element of solar system 
 	 *  @param dateTime value of current dateTime since 2000
+	 *  @param tolerance tolerance of Kepler's equation
 	 *  @return Event Event of Elements
 	 */
-	private Event get_coord(int element, double dateTime) {
+	private Event get_coord(int element, double dateTime, double tolerance) {
 		Event obj = new Event();
-		Coordinates coordObj = new Coordinates();
 		obj.setName(name[element]);
-		mean_elements(coordObj, element, dateTime);
-		double ap = coordObj.getA();
-		double ep = coordObj.getE();
-		double ip = coordObj.getI();
-		double op = coordObj.getO();
-		double pp = coordObj.getW();
-		double lp = coordObj.getL();
-
-		Coordinates coordEarth = new Coordinates();
-		mean_elements(coordEarth, 2, dateTime);
-		double ae = coordEarth.getA();
-		double ee = coordEarth.getE();
-		//double ie = coordEarth.getI();
-		//double oe = coordEarth.getO();
-		double pe = coordEarth.getW();
-		double le = coordEarth.getL();
+		Coordinates coords = new Coordinates();
+		double[] earth = new double[2];
+		earth(coords, dateTime, tolerance, earth);
+		double[] position = new double[COMPONENTS];
+		geocentric(coords, element, dateTime, tolerance, earth[0], earth[1], position, 0);
+		obj.setPosition(toPosition(position, 0));
+		return obj;
+	}
 
+	/**
+	 *  compute the heliocentric rectangular coordinates of the Earth
+	 *  @param coords Coordinates, used to compute the mean elements
+	 *  @param dateTime value of current dateTime since 2000
+	 *  @param tolerance tolerance of Kepler's equation
+	 *  @param earth out, x and y of the Earth (z is 0)
+	 */
+	private void earth(Coordinates coords, double dateTime, double tolerance, double[] earth) {
+		mean_elements(coords, 2, dateTime);
 		 // position of Earth in its orbit
-	    double me = mod2pi(le - pe);
-	    double ve = true_anomaly(me, ee);
+	    double me = mod2pi(coords.getL() - coords.getW());
+	    double ve = true_anomaly(me, coords.getE(), tolerance);
+	    earth(coords, ve, earth);
+	}
+
+	/**
+	 *  compute the heliocentric rectangular coordinates of the Earth from its true anomaly
+	 *  @param coords mean elements of the Earth
+	 *  @param ve true anomaly of the Earth
+	 *  @param earth out, x and y of the Earth (z is 0)
+	 */
+	private void earth(Coordinates coords, double ve, double[] earth) {
+		double ae = coords.getA();
+		double ee = coords.getE();
+		double pe = coords.getW();
 	    double re = ae*(1 - ee*ee)/(1 + ee*Math.cos(ve));
 	    
 	    // heliocentric rectangular coordinates of Earth
-	    double xe = re*Math.cos(ve + pe);
-	    double ye = re*Math.sin(ve + pe);
-	    double ze = 0.0;
-	    
+	    earth[0] = re*Math.cos(ve + pe);
+	    earth[1] = re*Math.sin(ve + pe);
+	}
+
+	/**
+	 *  compute RA, DEC and distance of an element seen from the Earth
+	 *  @param coords Coordinates, used to compute the mean elements
+	 *  @param element (0-8 int value) of element of solar system 
+	 *  @param dateTime value of current dateTime since 2000
+	 *  @param tolerance tolerance of Kepler's equation
+	 *  @param xe x of the Earth
+	 *  @param ye y of the Earth
+	 *  @param positions out, RA, DEC and distance at offset
+	 *  @param offset index of the RA in positions
+	 */
+	private void geocentric(Coordinates coords, int element, double dateTime, double tolerance, double xe, double ye,
+			double[] positions, int offset) {
+	    if (element == 2)  // earth --> compute sun
+	    {
+	    	geocentric(0, 0, 0, xe, ye, positions, offset);
+	    	return;
+	    }
+		mean_elements(coords, element, dateTime);
 	    // position of planet in its orbit
-	    double mp = mod2pi(lp - pp);
-	    double vp = true_anomaly(mp, coordObj.getE());
+	    double mp = mod2pi(coords.getL() - coords.getW());
+	    double vp = true_anomaly(mp, coords.getE(), tolerance);
+	    geocentric(coords, vp, xe, ye, positions, offset);
+	}
+
+	/**
+	 *  compute RA, DEC and distance of a planet seen from the Earth from its true anomaly
+	 *  @param coords mean elements of the planet
+	 *  @param vp true anomaly of the planet
+	 *  @param xe x of the Earth
+	 *  @param ye y of the Earth
+	 *  @param positions out, RA, DEC and distance at offset
+	 *  @param offset index of the RA in positions
+	 */
+	private void geocentric(Coordinates coords, double vp, double xe, double ye, double[] positions, int offset) {
+		double ap = coords.getA();
+		double ep = coords.getE();
+		double ip = coords.getI();
+		double op = coords.getO();
+		double pp = coords.getW();
 	    double rp = ap*(1 - ep*ep)/(1 + ep*Math.cos(vp));
 	    
 	    // heliocentric rectangular coordinates of planet
 	    double xh = rp*(Math.cos(op)*Math.cos(vp + pp - op) - Math.sin(op)*Math.sin(vp + pp - op)*Math.cos(ip));
 	    double yh = rp*(Math.sin(op)*Math.cos(vp + pp - op) + Math.cos(op)*Math.sin(vp + pp - op)*Math.cos(ip));
 	    double zh = rp*(Math.sin(vp + pp - op)*Math.sin(ip));
+	    geocentric(xh, yh, zh, xe, ye, positions, offset);
+	}
 
-	    if (element == 2)  // earth --> compute sun
-	    {
-	        xh = 0;
-	        yh = 0;
-	        zh = 0;
-	    }
-	    
+	/**
+	 *  compute RA, DEC and distance of heliocentric rectangular coordinates seen from the Earth
+	 *  @param xh x of the element
+	 *  @param yh y of the element
+	 *  @param zh z of the element
+	 *  @param xe x of the Earth
+	 *  @param ye y of the Earth
+	 *  @param positions out, RA, DEC and distance at offset
+	 *  @param offset index of the RA in positions
+	 */
+	private void geocentric(double xh, double yh, double zh, double xe, double ye, double[] positions, int offset) {
+		double ze = 0.0;
 	    // convert to geocentric rectangular coordinates
 	    double xg = xh - xe;
 	    double yg = yh - ye;
@@ -152,13 +326,9 @@ public class OrbitCalculator {
 	    double zeq = yg*Math.sin(ecl) + zg*Math.cos(ecl);
 	    
 	    // find the RA and DEC from the rectangular equatorial coords
-	    double rightAscention = mod2pi(Math.atan2(yeq, xeq)); 
-	    double declination  = Math.atan(zeq/Math.sqrt(xeq*xeq + yeq*yeq));
-	    double distance = Math.sqrt(xeq*xeq + yeq*yeq + zeq*zeq);
-	    double longitudeEcliptic =rightAscention*DEGS;
-	    
-	    obj.setPosition(new Position(rightAscention, declination, longitudeEcliptic, distance));
-		return obj;
+	    positions[offset + RIGHT_ASCENTION] = mod2pi(Math.atan2(yeq, xeq)); 
+	    positions[offset + DECLINATION] = Math.atan(zeq/Math.sqrt(xeq*xeq + yeq*yeq));
+	    positions[offset + DISTANCE] = Math.sqrt(xeq*xeq + yeq*yeq + zeq*zeq);
 	}
 
 	/**
@@ -255,10 +425,12 @@ public class OrbitCalculator {
 	 * Compute the true anomaly from mean anomaly using iteration
 	 * @param M - mean anomaly in radians
 	 * @param e - orbit eccentricity
+	 * @param tolerance - change of the eccentric anomaly that ends the iteration
 	 * @return double true anomaly
 	 */
-	private double true_anomaly(double M, double e) {
+	private double true_anomaly(double M, double e, double tolerance) {
 		double V, E1;
+		int iterations = 0;
 
 		// initial approximation of eccentric anomaly
 		double E = M + e * Math.sin(M) * (1.0 + e * Math.cos(M));
@@ -266,7 +438,7 @@ public class OrbitCalculator {
 		do { // iterate to improve accuracy
 			E1 = E;
 			E = E1 - (E1 - e * Math.sin(E1) - M) / (1 - e * Math.cos(E1));
-		} while (Math.abs(E - E1) > EPS);
+		} while (Math.abs(E - E1) > tolerance && ++iterations < MAX_ITERATIONS);
 
 		// convert eccentric anomaly to true anomaly
 		V = 2 * Math.atan(Math.sqrt((1 + e) / (1 - e)) * Math.tan(0.5 * E));
@@ -2,8 +2,10 @@ package br.com.henriquewilhelm.orbit;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
 
 /**
  * This program helps those who need to know stage, age, distance and position
@@ -33,6 +35,14 @@ public class PerigeeApogeeCalculator {
 		this.perigeeList = perigeeList;
 	}
 	
+	/**
+	 * Apogees and perigees of the year of the lists, with their exact instants and distances
+	 * @return ApsisTable
+	 */
+	public ApsisTable getApsisTable() {
+		return apsisTable;
+	}
+	
 	public PerigeeApogeeCalculator(Calendar calendar) {
 		calculate(calendar);
 	}
@@ -45,6 +55,26 @@ public class PerigeeApogeeCalculator {
 	 * Perigee List
 	 */
 	private ArrayList<Date> perigeeList;
+	/**
+	 * Apogees and perigees of the year
+	 */
+	private ApsisTable apsisTable;
+	/**
+	 * {@value #ANOMALISTIC_EPOC} Julian ephemeris date of the mean perigee k = 0
+	 */
+	private static final double ANOMALISTIC_EPOC = 2451534.6698;
+	/**
+	 * {@value #ANOMALISTIC_MONTH} Mean anomalistic month in days
+	 */
+	private static final double ANOMALISTIC_MONTH = 27.55454989;
+	/**
+	 * {@value #EARTH_RADIUS} Equatorial radius of the Earth in km
+	 */
+	private static final double EARTH_RADIUS = 6378.14;
+	/**
+	 * {@value #MAX_CORRECTION} Days between a mean apsis and the true one, at most
+	 */
+	private static final double MAX_CORRECTION = 3;
 	/**
 	 * We define the perigee and apogee period term arrays statically to avoid
 	 * re-constructing them on every invocation of moonPerigeeApogee().
@@ -63,7 +93,7 @@ public class PerigeeApogeeCalculator {
 			-2, 0, 2, 0, 0, -1, 2, 2, 0, 4, 0, -2, 2, 2, 2, -2, 24, 0, 0, 4, 0,
 			-4, 2, 2, 0, 1, -1, 0 };
 
-	private static final Double[] pericoeff = new Double[] { -1.6769, 0.4589, -0.1856, 0.0883,
+	private static final double[] pericoeff = new double[] { -1.6769, 0.4589, -0.1856, 0.0883,
 			-0.0773, 0.0502, -0.0460, 0.0422, -0.0256, 0.0253, 0.0237, 0.0162,
 			-0.0145, 0.0129, -0.0112, -0.0104, 0.0086, 0.0069, 0.0066, -0.0053,
 			-0.0052, -0.0046, -0.0041, 0.0040, 0.0032, -0.0032, 0.0031,
@@ -76,7 +106,7 @@ public class PerigeeApogeeCalculator {
 
 	private static final int[] peritft = new int[] { 4, 5, 7, -1 };
 
-	private Double[] peritfc = new Double[] { 0.00019, -0.00013, -0.00011 };
+	private static final double[] peritfc = new double[] { 0.00019, -0.00013, -0.00011 };
 
 	private static final int[] apoarg = new int[] {
 	/* D, M, F */
@@ -88,7 +118,7 @@ public class PerigeeApogeeCalculator {
 			6, 0, 2, 6, -2, 0, 10, -1, 0, 5, 0, 0, 4, 0, -2, 0, 1, 2, 12, 0, 0,
 			2, -1, 2, 1, -1, 0 };
 
-	private static final Double[] apocoeff = new Double[] { 0.4392, 0.0684, 0.0456, 0.0426, 0.0212,
+	private static final double[] apocoeff = new double[] { 0.4392, 0.0684, 0.0456, 0.0426, 0.0212,
 			-0.0189, 0.0144, 0.0113, 0.0047, 0.0036, 0.0035, 0.0034, -0.0034,
 			0.0022, -0.0017, 0.0013,
 
@@ -98,7 +128,7 @@ public class PerigeeApogeeCalculator {
 
 	private static final int[] apotft = new int[] { 2, 3, -1 };
 
-	private Double[] apotfc = new Double[] { -0.00011, -0.00011 };
+	private static final double[] apotfc = new double[] { -0.00011, -0.00011 };
 
 	private static final int[] periparg = new int[] {
 	/* D, M, F */
@@ -111,7 +141,7 @@ public class PerigeeApogeeCalculator {
 			0, 2, -1, -2, 9, 0, 0, 18, 0, 0, 6, 0, 2, 0, -1, 2, 16, -1, 0, 4,
 			0, -2, 8, 1, 0, 11, 0, 0, 5, 1, 0, 20, 0, 0 };
 
-	private static final Double[] peripcoeff = new Double[] { 3629.215, 63.224, -6.990, 2.834,
+	private static final double[] peripcoeff = new double[] { 3629.215, 63.224, -6.990, 2.834,
 			1.927, -1.263, -0.702, 0.696, -0.690, -0.629, -0.392, 0.297, 0.260,
 			0.201, -0.161, 0.157, -0.138, -0.127, 0.104, 0.104, -0.079, 0.068,
 
@@ -123,7 +153,7 @@ public class PerigeeApogeeCalculator {
 
 	private static final int[] periptft = new int[] { 3, 7, 9, -1 };
 
-	private static final Double[] periptfc = new Double[] { -0.0071, -0.0017, 0.0016 };
+	private static final double[] periptfc = new double[] { -0.0071, -0.0017, 0.0016 };
 
 	private static final int[] apoparg = new int[] {
 	/* D, M, F */
@@ -131,7 +161,7 @@ public class PerigeeApogeeCalculator {
 			-1, 0, 6, 0, 0, 2, 1, 0, 2, 0, 2, 2, 0, -2, 2, -2, 0, 2, 2, 0, 0,
 			2, 0, 6, -1, 0, 8, 0, 0 };
 
-	private static final Double[] apopcoeff = new Double[] { 3245.251, -9.147, -0.841, 0.697,
+	private static final double[] apopcoeff = new double[] { 3245.251, -9.147, -0.841, 0.697,
 			-0.656, 0.355, 0.159, 0.127, 0.065,
 
 			0.052, 0.043, 0.031, -0.023, 0.022, 0.019, -0.016, 0.014, 0.010,
@@ -140,17 +170,17 @@ public class PerigeeApogeeCalculator {
 
 	private static final int[] apoptft = new int[] { 4, -1 };
 
-	private static final Double[] apoptfc = new Double[] { 0.0016, -1.0 };
+	private static final double[] apoptfc = new double[] { 0.0016, -1.0 };
 	
 	/**
 	 * Convert Julian Date Number to Date (year, month, day), which are returned as
 	 * an Array.
 	 * 
 	 * @param td Julian Date Number to Date
-	 * @return Double[] Array Double {YEAR, MONTH, DAY}
+	 * @return int[] Array {YEAR, MONTH, DAY}
 	 */
-	private int[] julianYear(Double td) {
-		Double z, f, a, alpha, c, b, d, e, mm;
+	private static int[] julianYear(double td) {
+		double z, f, a, alpha, c, b, d, e, mm;
 
 		td += 0.5;
 		z = Math.floor(td);
@@ -169,11 +199,8 @@ public class PerigeeApogeeCalculator {
 		e = Math.floor((b - d) / 30.6001);
 		mm = Math.floor((e < 14) ? (e - 1) : (e - 13));
 
-		// System.out.println( Math.floor((mm > 2) ? (c - 4716) : (c - 4715))
-		// +"/"+mm+"/"+Math.floor(b - d - Math.floor(30.6001 * e) + f) );
-
 		return new int[] { (int) Math.floor((mm > 2) ? (c - 4716) : (c - 4715)),
-				mm.intValue(), (int) Math.floor(b - d - Math.floor(30.6001 * e) + f) };
+				(int) mm, (int) Math.floor(b - d - Math.floor(30.6001 * e) + f) };
 	}
 
 	/**
@@ -181,10 +208,10 @@ public class PerigeeApogeeCalculator {
 	 * three-element array.
 	 * 
 	 * @param jd Julian Date Number 
-	 * @return Double[] Array Double {HOUR, MINUTE, SECOND}
+	 * @return int[] Array {HOUR, MINUTE, SECOND}
 	 */
-	private int[] julianTimeToHourMinuteSecond(Double jd) {
-		Double ij;
+	private static int[] julianTimeToHourMinuteSecond(double jd) {
+		double ij;
 
 		jd += 0.5; /* Astronomical to civil */
 		ij = (jd - Math.floor(jd)) * 86400.0;
@@ -192,14 +219,33 @@ public class PerigeeApogeeCalculator {
 				(int) Math.floor((ij / 60) % 60), (int) Math.floor(ij % 60) };
 	}
 
+	/**
+	 * Julian date at 0h UT of a date, of the Julian calendar before 1582-10-15 (as {@link #julianYear(double)})
+	 * @param year year
+	 * @param month month (1 to 12)
+	 * @param day day of month
+	 * @return julian date
+	 */
+	private static double julianDate(int year, int month, int day) {
+		if (month <= 2) {
+			year--;
+			month += 12;
+		}
+		int B = 0;
+		if (year > 1582 || (year == 1582 && (month > 10 || (month == 10 && day >= 15)))) {
+			int A = year / 100;
+			B = 2 - A + A / 4;
+		}
+		return Math.floor(365.25 * (year + 4716)) + Math.floor(30.6001 * (month + 1)) + day + B - 1524.5;
+	}
+
 	/**
 	 *  Degrees to radians.
 	 *  
 	 *  @param d Angle Degrees
-	 *  @return Double value in Radians
+	 *  @return double value in Radians
 	 */
-
-	private Double degreesToRadians(Double d) {
+	private static double degreesToRadians(double d) {
 		return (d * Math.PI) / 180.0;
 	}
 
@@ -207,17 +253,29 @@ public class PerigeeApogeeCalculator {
 	 *  Range reduce angle in degrees. 
 	 *  
 	 *  @param a Angle Radians
-	 *  @return Double value in Degrees
+	 *  @return double value in Degrees
 	 */
-
-	private Double fixAngleInDegrees(Double a) {
+	private static double fixAngleInDegrees(double a) {
 		return a - 360.0 * (Math.floor((a) / 360.0));
 	}
 
-	private Double sumSeries(String trig, Double D, Double M, Double F,
-			Double T, int[] argtab, Double[] coeff, int[] tfix, Double[] tfixc) {
+	/**
+	 * Sum of the periodic terms of a series
+	 * @param sine true for a series of sines, false for cosines
+	 * @param D mean elongation of the Moon (degrees)
+	 * @param M mean anomaly of the Sun (degrees)
+	 * @param F Moon's argument of latitude (degrees)
+	 * @param T centuries of the terms with a secular change
+	 * @param argtab multiples of D, M and F of each term
+	 * @param coeff coefficient of each term, 0 after the last one
+	 * @param tfix indexes of the terms with a secular change, -1 after the last one
+	 * @param tfixc secular change of each of those terms
+	 * @return sum
+	 */
+	private static double sumSeries(boolean sine, double D, double M, double F,
+			double T, int[] argtab, double[] coeff, int[] tfix, double[] tfixc) {
 		int i, j = 0, n = 0;
-		Double sum = 0.0, arg, coef;
+		double sum = 0.0, arg, coef;
 
 		D = degreesToRadians(fixAngleInDegrees(D));
 		M = degreesToRadians(fixAngleInDegrees(M));
@@ -230,10 +288,7 @@ public class PerigeeApogeeCalculator {
 			if (i == tfix[n]) {
 				coef += T * tfixc[n++];
 			}
-			if (trig.equals("sin"))
-				sum += coef * Math.sin(arg);
-			else if (trig.equals("cos"))
-				sum += coef * Math.cos(arg);
+			sum += coef * (sine ? Math.sin(arg) : Math.cos(arg));
 		}
 
 		return sum;
@@ -242,30 +297,18 @@ public class PerigeeApogeeCalculator {
 	/**
 	 * Calculate perigee or apogee from index number.
 	 *
-	 * @param k Double value
-	 * @return Double[] value
+	 * @param k index, integer for a perigee and plus 0.5 for an apogee
+	 * @param apsis out, {julian ephemeris date, parallax (radians), distance (km)}
 	 */
-	private Double[] moonPerigeeApogee(Double k) {
-		Double t, t2, t3, t4, JDE, D, M, F, par;
-		boolean apogee;
-		Double EarthRad = 6378.14;
-
-		t = k - Math.floor(k);
-		if (t > 0.499 && t < 0.501) {
-			apogee = true;
-		} else if (t > 0.999 || t < 0.001) {
-			apogee = false;
-		} else {
-			System.out.println("Abort");
-			return null;
-		}
+	private static void moonPerigeeApogee(double k, double[] apsis) {
+		double t, t2, t3, t4, JDE, D, M, F, par;
+		boolean apogee = k - Math.floor(k) == 0.5;
 
 		t = k / 1325.55;
 		t4 = t * (t3 = t * (t2 = t * t));
 
 		/* Mean time of perigee or apogee */
-		JDE = 2451534.6698 + 27.55454989 * k - 0.0006691 * t2 - 0.000001098
-				* t3 + 0.0000000052 * t4;
+		JDE = meanPerigeeApogee(k, t2, t3, t4);
 
 		/* Mean elongation of the Moon */
 		D = 171.9179 + 335.9106046 * k - 0.0100383 * t2 - 0.00001156 * t3
@@ -277,84 +320,109 @@ public class PerigeeApogeeCalculator {
 		/* Moon's argument of latitude */
 		F = 316.6109 + 364.5287911 * k - 0.0125053 * t2 - 0.0000148 * t3;
 
-		JDE += sumSeries("sin", D, M, F, t, apogee ? apoarg : periarg,
+		JDE += sumSeries(true, D, M, F, t, apogee ? apoarg : periarg,
 				apogee ? apocoeff : pericoeff, apogee ? apotft : peritft,
 				apogee ? apotfc : peritfc);
-		par = sumSeries("cos", D, M, F, t, apogee ? apoparg : periparg,
+		par = sumSeries(false, D, M, F, t, apogee ? apoparg : periparg,
 				apogee ? apopcoeff : peripcoeff, apogee ? apoptft : periptft,
 				apogee ? apoptfc : periptfc);
 
 		par = degreesToRadians(par / 3600.0);
-		return new Double[] { JDE, par, EarthRad / Math.sin(par) };
+		apsis[0] = JDE;
+		apsis[1] = par;
+		apsis[2] = EARTH_RADIUS / Math.sin(par);
 	}
 
 	/**
-	 * Julian Date Numer to Date
+	 * Mean time of a perigee or apogee
+	 * @param k index, integer for a perigee and plus 0.5 for an apogee
+	 * @param t2 (k / 1325.55)^2
+	 * @param t3 (k / 1325.55)^3
+	 * @param t4 (k / 1325.55)^4
+	 * @return julian ephemeris date
+	 */
+	private static double meanPerigeeApogee(double k, double t2, double t3, double t4) {
+		return ANOMALISTIC_EPOC + ANOMALISTIC_MONTH * k - 0.0006691 * t2 - 0.000001098
+				* t3 + 0.0000000052 * t4;
+	}
+
+	/**
+	 * Julian Date Numer to Date, rounded to the minute, with the fields of the UT date in the default time zone
 	 * @param jd Julian Date Number
+	 * @return Date
 	 */
-	private Date eDate(Double jd) {
+	static Date eDate(double jd) {
 		int[] date = new int[3];
 		int[] time = new int[3];
 		jd += (30.0 / (24 * 60 * 60)); // Round to nearest minute
 		date = julianYear(jd);
 		time = julianTimeToHourMinuteSecond(jd);
-		// System.out.println(date[0].intValue()-1900+"/"+(date[1].intValue()-1)+" /"+date[2].intValue()
-		// + " "+ time[0].intValue() + "h"+ time[1].intValue() + "m ");
-		return new Date(date[0] - 1900, date[1] - 1,
-				date[2], time[0], time[1]);
+		return new Date(JulianDay.toMillis(TimeZone.getDefault(), JulianDay.epochDay(date[0], date[1], date[2]),
+				time[0] * JulianDay.MILLIS_IN_HOUR + time[1] * 60000L));
+	}
+
+	/**
+	 * Perigees and apogees of the moon of a range of dates, a few microseconds per apsis
+	 * @param fromJulianDate first julian ephemeris date
+	 * @param toJulianDate julian ephemeris date after the last one
+	 * @return ApsisTable, in the order of time
+	 */
+	public static ApsisTable apsides(double fromJulianDate, double toJulianDate) {
+		if (!(toJulianDate >= fromJulianDate)) {
+			throw new IllegalArgumentException("Invalid range from " + fromJulianDate + " to " + toJulianDate);
+		}
+		int capacity = (int) ((toJulianDate - fromJulianDate) / ANOMALISTIC_MONTH * 2) + 4;
+		double[] julianDates = new double[capacity];
+		double[] distances = new double[capacity];
+		boolean[] apogees = new boolean[capacity];
+		double[] apsis = new double[3];
+		int count = 0;
+		// perigees (k integer) and apogees (k + 0.5) whose mean time is within the correction of the range
+		double k = Math.floor((fromJulianDate - MAX_CORRECTION - ANOMALISTIC_EPOC) / ANOMALISTIC_MONTH * 2) / 2;
+		for (; ; k += 0.5) {
+			double t = k / 1325.55;
+			double t2 = t * t;
+			if (meanPerigeeApogee(k, t2, t2 * t, t2 * t2) >= toJulianDate + MAX_CORRECTION) {
+				break;
+			}
+			moonPerigeeApogee(k, apsis);
+			if (apsis[0] >= fromJulianDate && apsis[0] < toJulianDate) {
+				if (count == julianDates.length) {
+					julianDates = Arrays.copyOf(julianDates, 2 * count);
+					distances = Arrays.copyOf(distances, 2 * count);
+					apogees = Arrays.copyOf(apogees, 2 * count);
+				}
+				julianDates[count] = apsis[0];
+				distances[count] = apsis[2];
+				apogees[count] = k - Math.floor(k) == 0.5;
+				count++;
+			}
+		}
+		return new ApsisTable(julianDates, distances, apogees, count);
 	}
 	
 	/**
-	 * Generate Perigee and Apogee Times
-	 * @param calc Calculator
-	 * @param gps GpsCoordinate	
+	 * Perigees and apogees of the moon of a year, see {@link ApsisCache} to share them
+	 * @param year year, of the Julian calendar before 1582-10-15
+	 * @return ApsisTable, from 0h UT of January 1st to the next one
+	 */
+	public static ApsisTable apsides(int year) {
+		return apsides(julianDate(year, 1, 1), julianDate(year + 1, 1, 1));
+	}
+	
+	/**
+	 * Generate Perigee and Apogee Times of the year of a calendar
 	 * @param calendar Calendar 
-	 * @return Double value
 	 */
-
 	public void calculate(Calendar calendar) {
-		int[] date = new int[3];
+		apsisTable = apsides(calendar.get(Calendar.YEAR));
 		apogeeList = new ArrayList<Date>();
 		perigeeList = new ArrayList<Date>();
-		int l, m = 0, year = calendar.get(Calendar.YEAR); //
-		ArrayList<Double[]> evt;
-		Double[] dat, kr;
-		Double sk;
-
-		sk = Math.floor((year - 1999.97) * 13.2555);
-		dat = new Double[31];
-		evt = new ArrayList<Double[]>();
-
-		// Tabulate perigees and apogees for the year
-
-		for (l = 0; true; l++) {
-			
-			kr = moonPerigeeApogee(sk);
-			date = julianYear(kr[0]);
-
-			if (date[0] == year) {
-				
-				dat[m] = sk;
-				evt.add(kr);
-				m++;
-			}
-			if (date[0] > year) {
-				break;
-			}
-			sk += 0.5;
-		}
-		// Generate perigee and apogee table
-		for (l = 0; l < m; l++) {
-
-			sk = dat[l];
-			kr = evt.get(l);
-	
-			
-			if (l % 2 == 0)
-				getApogeeList().add(eDate(kr[0]));
+		for (int i = 0; i < apsisTable.size(); i++) {
+			if (apsisTable.isApogee(i))
+				getApogeeList().add(apsisTable.getDate(i));
 			else
-				getPerigeeList().add(eDate(kr[0]));
-
+				getPerigeeList().add(apsisTable.getDate(i));
 		}
 	}
-}
\ No newline at end of file
+}
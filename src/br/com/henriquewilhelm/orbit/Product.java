@@ -0,0 +1,66 @@
+package br.com.henriquewilhelm.orbit;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Products of a calculation, selected by {@link CalculationContext}. The work of the products
+ * that were not asked for is skipped and their fields of the {@link Result} are null.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public enum Product {
+	/**
+	 * Sunrise and sunset of the day ({@link Result#getSun()}) and the solar year
+	 */
+	SUN_RISE_SET,
+	/**
+	 * Golden hour, civil, nautical and astronomical twilights of the day
+	 */
+	TWILIGHTS,
+	/**
+	 * Moon of today and tomorrow and the lunar year
+	 */
+	MOON,
+	/**
+	 * Planets of the day and the planet year
+	 */
+	PLANETS,
+	/**
+	 * Perigee and apogee of the moon events and the apogee and perigee lists of the year, needs MOON
+	 */
+	APSIDES,
+	/**
+	 * Lunar and solar eclipses of the year, needs MOON and SUN_RISE_SET
+	 */
+	ECLIPSES,
+	/**
+	 * Year data of the other products, computed on the first access to it
+	 */
+	YEAR;
+
+	/**
+	 * All products
+	 * @return new set of all products
+	 */
+	public static EnumSet<Product> all() {
+		return EnumSet.allOf(Product.class);
+	}
+
+	/**
+	 * Copy of a selection with the products needed by it
+	 * @param products selection of products
+	 * @return new set of products
+	 */
+	static EnumSet<Product> withDependencies(Set<Product> products) {
+		EnumSet<Product> ret = products.isEmpty() ? EnumSet.noneOf(Product.class) : EnumSet.copyOf(products);
+		if (ret.contains(APSIDES) || ret.contains(ECLIPSES)) {
+			ret.add(MOON);
+		}
+		if (ret.contains(ECLIPSES)) {
+			ret.add(SUN_RISE_SET);
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,103 @@
+package br.com.henriquewilhelm.orbit;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Classe of Test App for the refinement of rise and set ({@link Calculator#setRefinement(int)}): the epoch seconds
+ * of a few Brent iterations are compared with those of {@value #REFERENCE} iterations, and the minute times of
+ * the events must be those of the calculation without refinement. Exits with status 1 on any mismatch.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public class RefinementTeste {
+	/**
+	 * {@value #SAMPLES} Random requests, sites within 60 degrees of latitude from 1980 to 2040
+	 */
+	private static final int SAMPLES = 3000;
+	/**
+	 * {@value #ITERATIONS} Iterations checked
+	 */
+	private static final int ITERATIONS = 6;
+	/**
+	 * {@value #REFERENCE} Iterations of reference
+	 */
+	private static final int REFERENCE = 50;
+	/**
+	 * {@value #MAX_SECONDS} Seconds the refined instant can be off
+	 */
+	private static final double MAX_SECONDS = .001;
+	/**
+	 * {@value #MAX_SECONDS_UNREFINED} Seconds the instant without refinement can be off
+	 */
+	private static final double MAX_SECONDS_UNREFINED = 10;
+
+	/**
+	 * Main of Test App for the refinement of rise and set
+	 * @param args String args
+	 */
+	public static void main(String[] args) {
+		TimeZone timeZone = TimeZone.getTimeZone("America/Chicago");
+		EnumSet<Product> products = EnumSet.of(Product.SUN_RISE_SET, Product.MOON);
+		Calculator unrefined = new Calculator(), refined = new Calculator(), reference = new Calculator();
+		refined.setRefinement(ITERATIONS);
+		reference.setRefinement(REFERENCE);
+		Random random = new Random(17);
+		double worstUnrefined = 0, worstRefined = 0;
+		int events = 0, minuteMismatches = 0;
+		for (int i = 0; i < SAMPLES; i++) {
+			GpsCoordinate gps = new GpsCoordinate(-60 + 120 * random.nextDouble(), -180 + 360 * random.nextDouble());
+			long timeInMillis = (long) ((10 * 365.25 + 60 * 365.25 * random.nextDouble()) * 86400000L);
+			CalculationContext context = new CalculationContext(new ObserverContext(gps), timeZone, timeInMillis,
+					products, Accuracy.STANDARD);
+			Result[] results = { unrefined.calculate(context), refined.calculate(context), reference.calculate(context) };
+			Event[][] byResult = new Event[results.length][];
+			for (int j = 0; j < results.length; j++) {
+				byResult[j] = new Event[] { results[j].getSun(), results[j].getMoonToday() };
+			}
+			for (int e = 0; e < byResult[0].length; e++) {
+				Event[] event = { byResult[0][e], byResult[1][e], byResult[2][e] };
+				for (int j = 1; j < event.length; j++) {
+					if (!sameMinutes(event[0].getRise(), event[j].getRise()) || !sameMinutes(event[0].getSet(), event[j].getSet())) {
+						minuteMismatches++;
+						System.out.printf("**Minutes of %s at %s changed by the refinement: %s****\n", gps,
+								new Date(timeInMillis), event[j]);
+					}
+				}
+				double[][] seconds = new double[event.length][];
+				for (int j = 0; j < event.length; j++) {
+					seconds[j] = new double[] { event[j].getRiseEpochSecond(), event[j].getSetEpochSecond() };
+				}
+				for (int k = 0; k < 2; k++) {
+					if (Double.isNaN(seconds[2][k])) {
+						continue;
+					}
+					events++;
+					worstUnrefined = Math.max(worstUnrefined, Math.abs(seconds[0][k] - seconds[2][k]));
+					worstRefined = Math.max(worstRefined, Math.abs(seconds[1][k] - seconds[2][k]));
+				}
+			}
+		}
+		boolean ok = minuteMismatches == 0 && worstRefined <= MAX_SECONDS && worstUnrefined <= MAX_SECONDS_UNREFINED;
+		System.out.printf("**%d events: %.3f s without refinement, %.2e s with %d iterations, %d minutes changed****\n",
+				events, worstUnrefined, worstRefined, ITERATIONS, minuteMismatches);
+		if (!ok) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Check if two times of an event have the same minute
+	 * @param time Time
+	 * @param other Time
+	 * @return true when both are the same minute (or both missing)
+	 */
+	private static boolean sameMinutes(Time time, Time other) {
+		if (time == null || other == null) {
+			return time == other;
+		}
+		return time.getHour() == other.getHour() && time.getMin() == other.getMin();
+	}
+}
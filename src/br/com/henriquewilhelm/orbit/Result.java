@@ -1,5 +1,7 @@
 package br.com.henriquewilhelm.orbit;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
@@ -77,9 +79,34 @@ public class Result implements Serializable {
 	 * Eclipse Solar List
 	 */
 	private ArrayList<SunEvent> eclipseSolar;
+	/**
+	 * Pending computation of the year data (lunar, solar and planet year, apogee, perigee and eclipse lists),
+	 * run on the first access to one of them. Null once the year data is materialized.
+	 */
+	private transient YearLoader yearLoader;
+	/**
+	 * Year data set through the setters while the year was pending, kept when the loader runs
+	 */
+	private transient int yearKept;
+	/**
+	 * Bits of the year data in {@link #yearKept}
+	 */
+	private static final int LUNAR_YEAR = 1, SOLAR_YEAR = 2, PLANET_YEAR = 4, APOGEE_LIST = 8, PERIGEE_LIST = 16,
+			ECLIPSE_LUNAR = 32, ECLIPSE_SOLAR = 64, YEAR = 127;
 	
 	private TimeZone timeZone;
 	
+	/**
+	 * Computes the year data of a Result on demand
+	 */
+	interface YearLoader {
+		/**
+		 * Fill the year data of the result through its setters
+		 * @param result Result to fill
+		 */
+		void load(Result result);
+	}
+	
 	public Event getSun() {
 		return sun;
 	}
@@ -129,45 +156,59 @@ public class Result implements Serializable {
 		this.moonTomorrow = moonTomorrow;
 	}
 	public ArrayList<ArrayList<MoonEvent>> getLunarYear() {
+		loadYear();
 		return lunarYear;
 	}
-	public void setLunarYear(ArrayList<ArrayList<MoonEvent>> lunarYear) {
+	public synchronized void setLunarYear(ArrayList<ArrayList<MoonEvent>> lunarYear) {
+		keepYear(LUNAR_YEAR);
 		this.lunarYear = lunarYear;
 	}
 	public ArrayList<MoonEvent> getApogeeList() {
+		loadYear();
 		return apogeeList;
 	}
-	public void setApogeeList(ArrayList<MoonEvent> apogeeList) {
+	public synchronized void setApogeeList(ArrayList<MoonEvent> apogeeList) {
+		keepYear(APOGEE_LIST);
 		this.apogeeList = apogeeList;
 	}
 	public ArrayList<MoonEvent> getPerigeeList() {
+		loadYear();
 		return perigeeList;
 	}
-	public void setPerigeeList(ArrayList<MoonEvent> perigeeList) {
+	public synchronized void setPerigeeList(ArrayList<MoonEvent> perigeeList) {
+		keepYear(PERIGEE_LIST);
 		this.perigeeList = perigeeList;
 	}
 	public ArrayList<MoonEvent> getEclipseLunar() {
+		loadYear();
 		return eclipseLunar;
 	}
-	public void setEclipseLunar(ArrayList<MoonEvent> eclipseLunar) {
+	public synchronized void setEclipseLunar(ArrayList<MoonEvent> eclipseLunar) {
+		keepYear(ECLIPSE_LUNAR);
 		this.eclipseLunar = eclipseLunar;
 	}
 	public ArrayList<SunEvent> getEclipseSolar() {
+		loadYear();
 		return eclipseSolar;
 	}
-	public void setEclipseSolar(ArrayList<SunEvent> eclipseSolar) {
+	public synchronized void setEclipseSolar(ArrayList<SunEvent> eclipseSolar) {
+		keepYear(ECLIPSE_SOLAR);
 		this.eclipseSolar = eclipseSolar;
 	}
 	public ArrayList<ArrayList<SunEvent>> getSolarYear() {
+		loadYear();
 		return solarYear;
 	}
-	public void setSolarYear(ArrayList<ArrayList<SunEvent>> solarYear) {
+	public synchronized void setSolarYear(ArrayList<ArrayList<SunEvent>> solarYear) {
+		keepYear(SOLAR_YEAR);
 		this.solarYear = solarYear;
 	}
 	public ArrayList<ArrayList<ArrayList<Event>>> getPlanetYear() {
+		loadYear();
 		return planetYear;
 	}
-	public void setPlanetYear(ArrayList<ArrayList<ArrayList<Event>	>> planetYear) {
+	public synchronized void setPlanetYear(ArrayList<ArrayList<ArrayList<Event>	>> planetYear) {
+		keepYear(PLANET_YEAR);
 		this.planetYear = planetYear;
 	}
 	public TimeZone getTimeZone() {
@@ -177,6 +218,68 @@ public class Result implements Serializable {
 	public void setTimeZone(TimeZone timeZone) {
 		this.timeZone = timeZone;
 	}
+	/**
+	 * Defer the year data to a loader run on first access to a getter of the year data. The year data set 
+	 * through the setters before that is kept, the loader only fills the rest.
+	 * @param yearLoader YearLoader
+	 */
+	synchronized void setYearLoader(YearLoader yearLoader) {
+		this.yearLoader = yearLoader;
+		this.yearKept = 0;
+	}
+	/**
+	 * Keep a year data set through its setter, the loader is dropped once all of them are set
+	 * @param field bit of the year data
+	 */
+	private void keepYear(int field) {
+		if (yearLoader != null) {
+			yearKept |= field;
+			if (yearKept == YEAR) {
+				yearLoader = null;
+			}
+		}
+	}
+	/**
+	 * Materialize the year data if it is still pending
+	 */
+	private synchronized void loadYear() {
+		if (yearLoader != null) {
+			Result year = new Result();
+			yearLoader.load(year);
+			yearLoader = null;
+			if ((yearKept & LUNAR_YEAR) == 0) {
+				lunarYear = year.lunarYear;
+			}
+			if ((yearKept & SOLAR_YEAR) == 0) {
+				solarYear = year.solarYear;
+			}
+			if ((yearKept & PLANET_YEAR) == 0) {
+				planetYear = year.planetYear;
+			}
+			if ((yearKept & APOGEE_LIST) == 0) {
+				apogeeList = year.apogeeList;
+			}
+			if ((yearKept & PERIGEE_LIST) == 0) {
+				perigeeList = year.perigeeList;
+			}
+			if ((yearKept & ECLIPSE_LUNAR) == 0) {
+				eclipseLunar = year.eclipseLunar;
+			}
+			if ((yearKept & ECLIPSE_SOLAR) == 0) {
+				eclipseSolar = year.eclipseSolar;
+			}
+			yearKept = 0;
+		}
+	}
+	/**
+	 * The year data is materialized before serialization, the loader itself is not serializable
+	 * @param out ObjectOutputStream
+	 * @throws IOException
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		loadYear();
+		out.defaultWriteObject();
+	}
 	/**
 	 * Contrutor of Result
 	 */   
@@ -193,99 +296,105 @@ public class Result implements Serializable {
 		PrintWriter writer = new PrintWriter(sw);
 		
 		writer.printf("TimeZone: " + getTimeZone().getID() + "\n");
-		if(sun.getRise() != null) {
-			writer.printf("\nSunrise %s", formatTimeAndAzimuth(sun.getRise(), sun.getRiseAzimuth()));
-		}
+		if (sun != null) {
+			if(sun.getRise() != null) {
+				writer.printf("\nSunrise %s", formatTimeAndAzimuth(sun.getRise(), sun.getRiseAzimuth()));
+			}
 		
-		if(sun.getSet() != null) {
 			if(sun.getSet() != null) {
-				writer.print(", ");
+				if(sun.getSet() != null) {
+					writer.print(", ");
+				}
+				writer.printf("Sunset %s ", formatTimeAndAzimuth(sun.getSet(), sun.getSetAzimuth()));
 			}
-			writer.printf("Sunset %s ", formatTimeAndAzimuth(sun.getSet(), sun.getSetAzimuth()));
-		}
 		
 		
-		// potential special-message
-		switch(sun.getType()) {
-		case NO_CHANGE_PREVIOUSLY_RISEN:
-			writer.println("Sun up all day");
-			break;
-		case NO_CHANGE_PREVIOUSLY_SET:
-			writer.println("Sun down all day");
-			break;
-		case ONLY_SET:
-			writer.println("No sunrise this date");
-			break;
-		case ONLY_RISEN:
-			writer.println("No sunset this date");
-			break;
-		default:
-			//nothing
-		}
+			// potential special-message
+			switch(sun.getType()) {
+			case NO_CHANGE_PREVIOUSLY_RISEN:
+				writer.println("Sun up all day");
+				break;
+			case NO_CHANGE_PREVIOUSLY_SET:
+				writer.println("Sun down all day");
+				break;
+			case ONLY_SET:
+				writer.println("No sunrise this date");
+				break;
+			case ONLY_RISEN:
+				writer.println("No sunset this date");
+				break;
+			default:
+				//nothing
+			}
 		
-		writer.printf("\nLongitude Ecliptical %s", sun.getPosition().getLongitudeEcliptic());
-		writer.printf("\tZodiac %s", sun.getZodiac());
-		writer.printf("\tRA %s\n", sun.getPosition().getRightAscention());
-		writer.printf("Day Length  : %s", sun.getRisenAmount());
-		if(sun.getMeridianCrossing()==null) {
-			writer.println("");
-		} else {
-			writer.println(", Solar Noon    : "+sun.getMeridianCrossing());
-		}
+			writer.printf("\nLongitude Ecliptical %s", sun.getPosition().getLongitudeEcliptic());
+			writer.printf("\tZodiac %s", sun.getZodiac());
+			writer.printf("\tRA %s\n", sun.getPosition().getRightAscention());
+			writer.printf("Day Length  : %s", sun.getRisenAmount());
+			if(sun.getMeridianCrossing()==null) {
+				writer.println("");
+			} else {
+				writer.println(", Solar Noon    : "+sun.getMeridianCrossing());
+			}
 		
-		writer.printf("Night Length: %s", sun.getSetAmount());
-		if(sun.getAntimeridianCrossing()==null) {
-			writer.println("");
-		} else {
-			writer.println(", Solar Midnight: "+sun.getAntimeridianCrossing());
+			writer.printf("Night Length: %s", sun.getSetAmount());
+			if(sun.getAntimeridianCrossing()==null) {
+				writer.println("");
+			} else {
+				writer.println(", Solar Midnight: "+sun.getAntimeridianCrossing());
+			}
 		}
 
-		writer.printf("Golden Hour          : (sunrise to %s, %s to sunset)\n", 
-			      replaceNull(goldenHour.getRise()),
-			      replaceNull(goldenHour.getSet()));
+		if (goldenHour != null) {
+			writer.printf("Golden Hour          : (sunrise to %s, %s to sunset)\n", 
+				      replaceNull(goldenHour.getRise()),
+				      replaceNull(goldenHour.getSet()));
 	
-		writer.printf("Civil Twilight       : (%s to sunrise, sunset to %s)",
-					  replaceNull(civilTwilight.getRise()), 
-					  replaceNull(civilTwilight.getSet()));
-		writer.printf(", Civil Night Length       : %s\n",
-					  replaceNull(civilTwilight.getSetAmount()));
+			writer.printf("Civil Twilight       : (%s to sunrise, sunset to %s)",
+						  replaceNull(civilTwilight.getRise()), 
+						  replaceNull(civilTwilight.getSet()));
+			writer.printf(", Civil Night Length       : %s\n",
+						  replaceNull(civilTwilight.getSetAmount()));
 		
-		writer.printf("Nautical Twilight    : (%s to sunrise, sunset to %s)",
-					  replaceNull(nauticalTwilight.getRise()),
-					  replaceNull(nauticalTwilight.getSet()));
-		writer.printf(", Nautical Night Length    : %s\n",
-					  replaceNull(nauticalTwilight.getSetAmount()));
+			writer.printf("Nautical Twilight    : (%s to sunrise, sunset to %s)",
+						  replaceNull(nauticalTwilight.getRise()),
+						  replaceNull(nauticalTwilight.getSet()));
+			writer.printf(", Nautical Night Length    : %s\n",
+						  replaceNull(nauticalTwilight.getSetAmount()));
 		
-		writer.printf("Astronomical Twilight: (%s to sunrise, sunset to %s)",
-					  replaceNull(astronomicalTwilight.getRise()),
-					  replaceNull(astronomicalTwilight.getSet()));
-		writer.printf(", Astronomical Night Length: %s\n", 
-					  replaceNull(astronomicalTwilight.getSetAmount()));
+			writer.printf("Astronomical Twilight: (%s to sunrise, sunset to %s)",
+						  replaceNull(astronomicalTwilight.getRise()),
+						  replaceNull(astronomicalTwilight.getSet()));
+			writer.printf(", Astronomical Night Length: %s\n", 
+						  replaceNull(astronomicalTwilight.getSetAmount()));
+		}
 
-		writer.printf("\nMoon Today\n%s	Moonrise: %s   Moonset: %s   Moon age: %3.0f days   Phase %s	Illumination: %3.0f%%	Long. Ecliptic%3.1f	Distance %3.2f	Zodiac %s	%s	AnglePhase: %3.2f\n" ,
-				 	moonToday.getDate(),
-					  formatTimeAndAzimuth(moonToday.getRise(), moonToday.getRiseAzimuth()),
-					  formatTimeAndAzimuth(moonToday.getSet() , moonToday.getSetAzimuth()),
-					  moonToday.getAgeInDays(),
-					  moonToday.getPhase(),
-					  moonToday.getIlluminationPercent(),
-					  moonToday.getPosition().getLongitudeEcliptic(),
-					  moonToday.getPosition().getDistance(),
-					  moonToday.getZodiac(),
-					  moonToday.getPerigeeOrApogee(),
-					  moonToday.getAnglePhase());
-		writer.printf("Moon Tomorrow\n%s	Moonrise: %s   Moonset: %s   Moon age: %3.0f days   Phase %s	Illumination: %3.0f%%	Long. Ecliptic%3.1f	Distance %3.2f	Zodiac %s	%s	AnglePhase: %3.2f\n" ,
-				moonTomorrow.getDate(),
-					formatTimeAndAzimuth(moonTomorrow.getRise(), moonTomorrow.getRiseAzimuth()),
-					  formatTimeAndAzimuth(moonTomorrow.getSet(),  moonTomorrow.getSetAzimuth()),
-					  moonTomorrow.getAgeInDays(),
-					  moonTomorrow.getPhase(),
-					  moonTomorrow.getIlluminationPercent(),
-					  moonTomorrow.getPosition().getLongitudeEcliptic(),
-					  moonTomorrow.getPosition().getDistance(),
-					  moonTomorrow.getZodiac(),
-					  moonTomorrow.getPerigeeOrApogee(),
-					  moonTomorrow.getAnglePhase());
+		if (moonToday != null) {
+			writer.printf("\nMoon Today\n%s	Moonrise: %s   Moonset: %s   Moon age: %3.0f days   Phase %s	Illumination: %3.0f%%	Long. Ecliptic%3.1f	Distance %3.2f	Zodiac %s	%s	AnglePhase: %3.2f\n" ,
+					 	moonToday.getDate(),
+						  formatTimeAndAzimuth(moonToday.getRise(), moonToday.getRiseAzimuth()),
+						  formatTimeAndAzimuth(moonToday.getSet() , moonToday.getSetAzimuth()),
+						  moonToday.getAgeInDays(),
+						  moonToday.getPhase(),
+						  moonToday.getIlluminationPercent(),
+						  moonToday.getPosition().getLongitudeEcliptic(),
+						  moonToday.getPosition().getDistance(),
+						  moonToday.getZodiac(),
+						  moonToday.getPerigeeOrApogee(),
+						  moonToday.getAnglePhase());
+			writer.printf("Moon Tomorrow\n%s	Moonrise: %s   Moonset: %s   Moon age: %3.0f days   Phase %s	Illumination: %3.0f%%	Long. Ecliptic%3.1f	Distance %3.2f	Zodiac %s	%s	AnglePhase: %3.2f\n" ,
+					moonTomorrow.getDate(),
+						formatTimeAndAzimuth(moonTomorrow.getRise(), moonTomorrow.getRiseAzimuth()),
+						  formatTimeAndAzimuth(moonTomorrow.getSet(),  moonTomorrow.getSetAzimuth()),
+						  moonTomorrow.getAgeInDays(),
+						  moonTomorrow.getPhase(),
+						  moonTomorrow.getIlluminationPercent(),
+						  moonTomorrow.getPosition().getLongitudeEcliptic(),
+						  moonTomorrow.getPosition().getDistance(),
+						  moonTomorrow.getZodiac(),
+						  moonTomorrow.getPerigeeOrApogee(),
+						  moonTomorrow.getAnglePhase());
+		}
 		
 //		writer.println("\nPlanets");
 //		for (int i = 0; i < planetList.size(); i++) {
@@ -299,10 +408,12 @@ public class Result implements Serializable {
 //			}
 //		}
 //		
-		writer.println("\nLunar Year");
-		for (int i = 0; i < lunarYear.size(); i++) {
-			for (int j = 0; j < lunarYear.get(i).size(); j++) {
-				writer.printf(lunarYear.get(i).get(j).toString());
+		if (getLunarYear() != null) {
+			writer.println("\nLunar Year");
+			for (int i = 0; i < getLunarYear().size(); i++) {
+				for (int j = 0; j < lunarYear.get(i).size(); j++) {
+					writer.printf(lunarYear.get(i).get(j).toString());
+				}
 			}
 		}
 //		writer.println("\nApogee");
@@ -314,14 +425,18 @@ public class Result implements Serializable {
 //			writer.printf(perigeeList.get(j).toString());
 //		}
 //		
-		writer.println("\nEclipse Lunar");
-		for (int i = 0; i < eclipseLunar.size(); i++) {
-				writer.printf(eclipseLunar.get(i).toString());
-			
+		if (getEclipseLunar() != null) {
+			writer.println("\nEclipse Lunar");
+			for (int i = 0; i < getEclipseLunar().size(); i++) {
+					writer.printf(eclipseLunar.get(i).toString());
+				
+			}
 		}
-		writer.println("\nEclipse Solar");
-		for (int i = 0; i < eclipseSolar.size(); i++) {
-				writer.printf(eclipseSolar.get(i).toString());
+		if (getEclipseSolar() != null) {
+			writer.println("\nEclipse Solar");
+			for (int i = 0; i < getEclipseSolar().size(); i++) {
+					writer.printf(eclipseSolar.get(i).toString());
+			}
 		}
 //		writer.println("\nPlanets Year");
 //		for (int i = 0; i < planetYear.size(); i++) {
@@ -0,0 +1,105 @@
+package br.com.henriquewilhelm.orbit;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Classe of Test App for a reused calculator: one calculator computes the years of many requests and its
+ * apogee and perigee lists and the used heap must stay bounded. Exits with status 1 when they grow.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public class SoakTeste {
+	/**
+	 * {@value #CALLS} Calls of the calculator, unless given as the first argument
+	 */
+	private static final int CALLS = 2000;
+	/**
+	 * {@value #WARM_UP} Calls before the heap of reference is measured
+	 */
+	private static final int WARM_UP = 100;
+	/**
+	 * {@value #CHECKPOINTS} Checks of the heap over the calls
+	 */
+	private static final int CHECKPOINTS = 10;
+	/**
+	 * {@value #YEARS} Years of the requests, each one is asked many times
+	 */
+	private static final int YEARS = 4;
+	/**
+	 * {@value #MAX_APSIDES} Apogees (or perigees) of a year, from December of the year before to January of the next
+	 */
+	private static final int MAX_APSIDES = 17;
+	/**
+	 * {@value #MAX_HEAP_GROWTH} Bytes the used heap can grow after the warm up
+	 */
+	private static final long MAX_HEAP_GROWTH = 16L * 1024 * 1024;
+
+	/**
+	 * Main of Test App for a reused calculator
+	 * @param args String args, the number of calls
+	 */
+	public static void main(String[] args) {
+		int calls = args.length > 0 ? Integer.parseInt(args[0]) : CALLS;
+		GpsCoordinate gps = new GpsCoordinate(-27.185768, -48.575556); // Florianopolis, Brazil
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("America/Sao_Paulo"));
+		calendar.clear();
+		calendar.set(2018, 0, 10, 10, 30);
+		Calculator calculator = new Calculator(gps, calendar);
+
+		int[] apogees = new int[YEARS];
+		int[] perigees = new int[YEARS];
+		long reference = 0;
+		long maxGrowth = 0;
+		int failures = 0;
+		for (int i = 0; i < calls; i++) {
+			int year = i % YEARS;
+			calendar.set(Calendar.YEAR, 2018 + year);
+			// the year data is computed on the first access to the result
+			calculator.calculate(gps, calendar).getApogeeList();
+			int apogee = calculator.getApogeeList().size();
+			int perigee = calculator.getPerigeeList().size();
+			if (i < YEARS) {
+				apogees[year] = apogee;
+				perigees[year] = perigee;
+			}
+			if (apogee != apogees[year] || perigee != perigees[year] || apogee > MAX_APSIDES || perigee > MAX_APSIDES) {
+				failures++;
+				System.out.printf("**Call %d year %d: %d apogees and %d perigees, expected %d and %d****\n", i,
+						2018 + year, apogee, perigee, apogees[year], perigees[year]);
+			}
+			if (i == WARM_UP) {
+				reference = usedHeap();
+			} else if (i > WARM_UP && i % Math.max(1, calls / CHECKPOINTS) == 0) {
+				long growth = usedHeap() - reference;
+				maxGrowth = Math.max(maxGrowth, growth);
+				System.out.printf("**Call %d: used heap %+d KB since call %d****\n", i, growth / 1024, WARM_UP);
+			}
+		}
+		if (calls > WARM_UP) {
+			long growth = usedHeap() - reference;
+			maxGrowth = Math.max(maxGrowth, growth);
+			if (maxGrowth > MAX_HEAP_GROWTH) {
+				failures++;
+				System.out.printf("**Used heap grew %d KB, more than %d KB****\n", maxGrowth / 1024,
+						MAX_HEAP_GROWTH / 1024);
+			}
+		}
+		System.out.printf("**%d calls, %d failures****\n", calls, failures);
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Used heap after collecting the garbage
+	 * @return bytes
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,110 @@
+package br.com.henriquewilhelm.orbit;
+import java.util.Random;
+
+/**
+ * Classe of Test App for the closed form rise and set of {@link HorizonScan}: the crossings solved from the hour
+ * angle (0 steps, as {@link Accuracy#FAST}) and those of the hourly scan (24 steps, as {@link Accuracy#STANDARD})
+ * are compared with a scan of every minute of the same tracks. Exits with status 1 when the solver is off.
+ *
+ * @author Henrique Wilhelm v2.0.0
+ * @version v2.0.0
+ */
+public class SolverTeste {
+	/**
+	 * {@value #SAMPLES} Random tracks of each body and band of latitudes
+	 */
+	private static final int SAMPLES = 20000;
+	/**
+	 * {@value #DAYS} Days before and after J2000 of the tracks (1900 to 2100)
+	 */
+	private static final double DAYS = 36525;
+	/**
+	 * {@value #MINUTES_IN_DAY}
+	 */
+	private static final int MINUTES_IN_DAY = 1440;
+	/**
+	 * {@value #MAX_MINUTES} Minutes the solver can be off within {@link #LOW_LATITUDE}
+	 */
+	private static final int MAX_MINUTES = 1;
+	/**
+	 * {@value #LOW_LATITUDE} Degrees of latitude of the solution to the minute
+	 */
+	private static final double LOW_LATITUDE = 60;
+	/**
+	 * {@value #HIGH_LATITUDE} Degrees of latitude where the solver must not be worse than the hourly scan
+	 */
+	private static final double HIGH_LATITUDE = 80;
+
+	/**
+	 * Main of Test App for the closed form rise and set
+	 * @param args String args
+	 */
+	public static void main(String[] args) {
+		Calculator calculator = new Calculator();
+		Random random = new Random(16);
+		HorizonScan solver = new HorizonScan(), hourly = new HorizonScan(), minutes = new HorizonScan();
+		int failures = 0;
+		for (Body body : new Body[] { Body.SUN, Body.MOON, Body.MARS }) {
+			double Z = HorizonScan.horizon(body == Body.SUN ? -0.833 : 0, false);
+			for (double[] band : new double[][] { { 0, LOW_LATITUDE }, { LOW_LATITUDE, HIGH_LATITUDE } }) {
+				// worst minutes and crossings missed (or found in excess) of the solver and of the hourly scan
+				int solverWorst = 0, hourlyWorst = 0, solverMissed = 0, hourlyMissed = 0;
+				for (int i = 0; i < SAMPLES; i++) {
+					double daysFromEpoc = DAYS * (2 * random.nextDouble() - 1);
+					double latitude = Math.toRadians((band[0] + (band[1] - band[0]) * random.nextDouble())
+							* (random.nextBoolean() ? 1 : -1));
+					double LST = 2 * Math.PI * random.nextDouble();
+					Position today = calculator.calculateBodyPosition(body, daysFromEpoc);
+					Position tomorrow = calculator.calculateBodyPosition(body, daysFromEpoc + 1);
+					if (tomorrow.getRightAscention() < today.getRightAscention()) {
+						tomorrow = new Position(tomorrow.getRightAscention() + 2 * Math.PI, tomorrow.getDeclination(), 0, 0);
+					}
+					double S = Math.sin(latitude), C = Math.cos(latitude);
+					solver.setTrack(today, tomorrow, 0);
+					hourly.setTrack(today, tomorrow, 24);
+					minutes.setTrack(today, tomorrow, MINUTES_IN_DAY);
+					solver.scan(S, C, Z, LST);
+					hourly.scan(S, C, Z, LST);
+					minutes.scan(S, C, Z, LST);
+					int[] expected = { minutes.getRiseMinute(0), minutes.getSetMinute(0) };
+					int[] solved = { solver.getRiseMinute(0), solver.getSetMinute(0) };
+					int[] scanned = { hourly.getRiseMinute(0), hourly.getSetMinute(0) };
+					for (int k = 0; k < 2; k++) {
+						if ((solved[k] == HorizonScan.NONE) != (expected[k] == HorizonScan.NONE)) {
+							solverMissed++;
+						} else if (expected[k] != HorizonScan.NONE) {
+							solverWorst = Math.max(solverWorst, minutes(solved[k], expected[k]));
+						}
+						if ((scanned[k] == HorizonScan.NONE) != (expected[k] == HorizonScan.NONE)) {
+							hourlyMissed++;
+						} else if (expected[k] != HorizonScan.NONE) {
+							hourlyWorst = Math.max(hourlyWorst, minutes(scanned[k], expected[k]));
+						}
+					}
+				}
+				boolean ok = band[1] <= LOW_LATITUDE ? solverWorst <= MAX_MINUTES && solverMissed == 0
+						: solverWorst <= hourlyWorst && solverMissed <= hourlyMissed;
+				if (!ok) {
+					failures++;
+				}
+				System.out.printf("**%s latitude %.0f-%.0f: solver %d min %d missed, hourly scan %d min %d missed%s****\n",
+						body, band[0], band[1], solverWorst, solverMissed, hourlyWorst, hourlyMissed, ok ? "" : " FAILED");
+			}
+		}
+		System.out.printf("**%d failures****\n", failures);
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Minutes between two minutes of day, over midnight
+	 * @param minute minute of day
+	 * @param other minute of day
+	 * @return minutes
+	 */
+	private static int minutes(int minute, int other) {
+		int minutes = Math.abs(minute - other);
+		return Math.min(minutes, MINUTES_IN_DAY - minutes);
+	}
+}
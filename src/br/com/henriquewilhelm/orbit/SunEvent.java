@@ -65,6 +65,8 @@ public class SunEvent extends Event implements Serializable {
 		setSet(event.getSet());
 		setRiseAzimuth(event.getRiseAzimuth());
 		setSetAzimuth(event.getSetAzimuth());
+		setRiseEpochSecond(event.getRiseEpochSecond());
+		setSetEpochSecond(event.getSetEpochSecond());
 		setType(event.getType());
 		setMeridianCrossing(event.getMeridianCrossing());
 		setAntimeridianCrossing(event.getAntimeridianCrossing());